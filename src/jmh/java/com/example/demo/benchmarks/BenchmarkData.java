@@ -0,0 +1,62 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.entities.User;
+
+import java.time.LocalDate;
+
+/**
+ * Detached entity graphs shared by the in-memory benchmarks. Ids are assigned by hand,
+ * since nothing here is persisted.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static User user() {
+        User user = new User("benchmarkuser", "secret", "bench@example.com", "050000000", "Street 1", false);
+        user.setId(1L);
+        return user;
+    }
+
+    static Product[] products(int count) {
+        Category category = new Category("Electronics", "All electronics");
+        category.setId(1L);
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Product " + i, "Description of product " + i, 10 + i, category, 100, "Brand", "M" + i);
+            product.setId((long) i + 1);
+            for (int j = 0; j < 3; j++) {
+                product.addImage("/images/" + i + "-" + j + ".png");
+                product.addSpecification("spec" + j, "value" + j);
+            }
+            products[i] = product;
+        }
+        return products;
+    }
+
+    static Cart cart(Product[] products) {
+        Cart cart = new Cart(user());
+        cart.setId(1L);
+        for (Product product : products) {
+            cart.addProduct(product, 2);
+        }
+        return cart;
+    }
+
+    static Order order(Product[] products) {
+        Order order = new Order(user(), LocalDate.now(), StatusOrder.PENDING);
+        order.setId(1L);
+        for (Product product : products) {
+            order.getOrderItems().add(new OrderItem(order, product, 2, product.getPrice()));
+        }
+        order.calculateTotalAmount();
+        return order;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart and order arithmetic on the entities: adding a product (a linear scan of the
+ * lines), cart total and order total, for a small and a large cart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartOrderBenchmark {
+    @Param({"3", "200"})
+    private int lines;
+
+    private Product[] products;
+    private Product existingProduct;
+    private Cart cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        products = BenchmarkData.products(lines);
+        existingProduct = products[lines - 1];
+        cart = BenchmarkData.cart(products);
+        order = BenchmarkData.order(products);
+    }
+
+    /**
+     * Adds to the last line, the worst case of the scan; the line count stays constant
+     */
+    @Benchmark
+    public Object cartAddExistingProduct() {
+        return cart.addProduct(existingProduct, 1);
+    }
+
+    @Benchmark
+    public double cartTotalPrice() {
+        return cart.getTotalPrice();
+    }
+
+    @Benchmark
+    public double orderCalculateTotalAmount() {
+        order.calculateTotalAmount();
+        return order.getTotalAmount();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import com.example.demo.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full OrderService.createOrderFromCart path (cart load, inventory check and
+ * decrement, order insert, rollup and store updates, commit) against an embedded H2
+ * database in a real application context. A fresh cart is saved before each call and
+ * is not part of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+    private static final int PRODUCTS = 100;
+    private static final int STOCK = 1_000_000_000;
+
+    @Param({"1", "10", "100"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartRepo cartRepo;
+    private User user;
+    private Product[] products;
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:checkoutbenchmark",
+                        "logging.level.root=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        cartRepo = context.getBean(CartRepo.class);
+
+        user = context.getBean(UserRepo.class)
+                .save(new User("checkoutbench", "secret", "checkout@example.com", "050000000", "Street 1", false));
+        Category category = context.getBean(CategoryRepo.class).save(new Category("Benchmark", "Benchmark products"));
+        ProductRepo productRepo = context.getBean(ProductRepo.class);
+        products = new Product[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            products[i] = productRepo.save(new Product("Product " + i, "Description " + i, 10 + i, category, STOCK, "Brand", "C" + i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newCart() {
+        Cart cart = new Cart(user);
+        for (int i = 0; i < lines; i++) {
+            cart.getCartItems().add(new CartItem(cart, products[i], 1));
+        }
+        cartId = cartRepo.save(cart).getId();
+    }
+
+    @Benchmark
+    public Order createOrderFromCart() {
+        return orderService.createOrderFromCart(cartId, "Street 1", "Tel Aviv", "6100000", "Israel");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
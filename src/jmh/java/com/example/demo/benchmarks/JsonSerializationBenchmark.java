@@ -0,0 +1,67 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.entities.Order;
+import com.example.demo.entities.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of entity graphs as the controllers write them: a product with its
+ * images and specifications, a product list, and an order with its items and products.
+ * The mapper is built the way Spring Boot builds its default one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"3", "200"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> products;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Product[] graph = BenchmarkData.products(items);
+        product = graph[0];
+        products = Arrays.asList(graph);
+        order = BenchmarkData.order(graph);
+    }
+
+    @Benchmark
+    public byte[] product() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.repositories.OrderRepo;
+import com.example.demo.services.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warehouse manifest: marking PROCESSING orders SHIPPED one OrderService.updateStatus
+ * call at a time, as the PUT /orders/{id}/status loop does, versus one bulk transition
+ * with tracking numbers. Both run in-process, so the looped side does not pay the
+ * per-request HTTP and serialization cost it has in production. A fresh batch of
+ * orders is saved before each call and is not part of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBulkStatusBenchmark {
+    @Param({"100", "1000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private OrderRepo orderRepo;
+    private List<Long> ids;
+    private Map<Long, String> trackingNumbers;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bulkstatusbenchmark",
+                        "logging.level.root=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        orderRepo = context.getBean(OrderRepo.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void processingOrders() {
+        List<Order> batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order(null, LocalDate.now(), StatusOrder.PENDING);
+            order.updateStatus(StatusOrder.PROCESSING, "Payment processed");
+            batch.add(order);
+        }
+        ids = orderRepo.saveAll(batch).stream().map(Order::getId).toList();
+        trackingNumbers = new HashMap<>();
+        ids.forEach(id -> trackingNumbers.put(id, "TRK" + id));
+    }
+
+    @Benchmark
+    public Order shipLooped() {
+        Order last = null;
+        for (Long id : ids) {
+            last = orderService.updateStatus(id, StatusOrder.SHIPPED, "manifest");
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<BulkStatusResultDto> shipBulk() {
+        return orderService.bulkUpdateStatus(ids, StatusOrder.SHIPPED, "manifest", trackingNumbers);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
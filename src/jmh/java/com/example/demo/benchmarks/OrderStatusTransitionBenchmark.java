@@ -0,0 +1,42 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.services.OrderStateMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status transition checks (formerly OrderService.validateStatusTransition, now
+ * OrderStateMachine.canTransition), over every (from, to) pair per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderStatusTransitionBenchmark {
+    private static final StatusOrder[] STATUSES = StatusOrder.values();
+
+    // The check reads only static tables, so no Spring context is needed
+    private final OrderStateMachine stateMachine = new OrderStateMachine();
+
+    @Benchmark
+    public void canTransitionAllPairs(Blackhole blackhole) {
+        for (StatusOrder from : STATUSES) {
+            for (StatusOrder to : STATUSES) {
+                blackhole.consume(stateMachine.canTransition(from, to));
+            }
+        }
+    }
+}
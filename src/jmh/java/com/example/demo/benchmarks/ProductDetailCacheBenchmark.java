@@ -0,0 +1,77 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.services.ProductDetailCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /products/{id} served from ProductDetailCache: a hit on the cached JSON bytes
+ * versus a miss, which loads the product page from the database and serializes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductDetailCacheBenchmark {
+    private ConfigurableApplicationContext context;
+    private ProductDetailCache cache;
+    private Long productId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:productcachebenchmark",
+                        "logging.level.root=WARN")
+                .run();
+        cache = context.getBean(ProductDetailCache.class);
+
+        Category category = context.getBean(CategoryRepo.class).save(new Category("Benchmark", "Benchmark products"));
+        Product product = new Product("Cached product", "Description", 25, category, 100, "Brand", "C1");
+        for (int i = 0; i < 3; i++) {
+            product.addImage("/images/cached-" + i + ".png");
+            product.addSpecification("spec" + i, "value" + i);
+        }
+        productId = context.getBean(ProductRepo.class).save(product).getId();
+    }
+
+    @Benchmark
+    public Optional<byte[]> hit() {
+        return cache.get(productId);
+    }
+
+    @Benchmark
+    public Optional<byte[]> loadAndSerialize() {
+        cache.clear();
+        return cache.get(productId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+}
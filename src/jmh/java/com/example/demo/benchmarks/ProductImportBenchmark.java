@@ -0,0 +1,109 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.ProductImportDto;
+import com.example.demo.entities.Category;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.services.ProductImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductImportService on a generated CSV supplier catalog: a first import of new SKUs
+ * (inserts) and a re-import of a catalog already in the database with new prices
+ * (updates in place). The file is generated before each call and is not part of the
+ * measured time; rows per second is the row count divided by the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductImportBenchmark {
+    private static final int CATEGORIES = 20;
+    private static final int BRANDS = 30;
+    private static final String HEADER = "name,description,price,quantity,category,brand,model\n";
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService importService;
+    private int run;
+    private byte[] newCatalog;
+    private byte[] repricedCatalog;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:productimportbenchmark",
+                        "logging.level.root=WARN")
+                .run();
+        importService = context.getBean(ProductImportService.class);
+
+        CategoryRepo categoryRepo = context.getBean(CategoryRepo.class);
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryRepo.save(new Category("Import category " + i, "Category " + i));
+        }
+        importService.importProducts(ProductImportService.Format.CSV,
+                new ByteArrayInputStream(catalog("BASE", 0)), report -> { });
+    }
+
+    @Setup(Level.Invocation)
+    public void generateCatalogs() {
+        run++;
+        newCatalog = catalog("RUN" + run, 0);
+        repricedCatalog = catalog("BASE", run);
+    }
+
+    @Benchmark
+    public ProductImportDto importNew() throws IOException {
+        return importService.importProducts(ProductImportService.Format.CSV,
+                new ByteArrayInputStream(newCatalog), report -> { });
+    }
+
+    @Benchmark
+    public ProductImportDto reimportWithNewPrices() throws IOException {
+        return importService.importProducts(ProductImportService.Format.CSV,
+                new ByteArrayInputStream(repricedCatalog), report -> { });
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    private byte[] catalog(String prefix, int priceOffset) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            csv.append("\"Widget, size ").append(i).append("\",Supplier item ").append(i).append(',')
+                    .append(5 + (i + priceOffset) % 200).append(',').append(i % 40)
+                    .append(",Import category ").append(i % CATEGORIES)
+                    .append(",Brand ").append(i % BRANDS)
+                    .append(',').append(prefix).append('-').append(i).append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
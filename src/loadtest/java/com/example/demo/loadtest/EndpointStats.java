@@ -0,0 +1,70 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counts of one endpoint. Latencies are recorded in
+ * microseconds into an HdrHistogram Recorder, which virtual users write to concurrently.
+ * Rejected calls are 4xx answers (e.g. a duplicate review); errors are 5xx answers,
+ * failed connections and answers the virtual user could not use.
+ */
+final class EndpointStats {
+    private final String endpoint;
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    void record(long latencyNanos, int status) {
+        latency.recordValue(Math.max(1, latencyNanos / 1000));
+        requests.increment();
+        if (status >= 500 || status < 0) {
+            errors.increment();
+        } else if (status >= 400) {
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Count an already recorded call as an error, e.g. a 2xx answer whose body was unusable
+     */
+    void recordFailure() {
+        errors.increment();
+    }
+
+    /**
+     * Drop everything recorded so far (end of warmup)
+     */
+    void reset() {
+        latency.reset();
+        requests.reset();
+        rejected.reset();
+        errors.reset();
+    }
+
+    Result result(double seconds) {
+        Histogram histogram = latency.getIntervalHistogram();
+        long count = requests.sum();
+        return new Result(endpoint, count, count / seconds, rejected.sum(),
+                count == 0 ? 0 : (double) errors.sum() / count,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    record Result(String endpoint, long requests, double throughputPerSecond, long rejected, double errorRate,
+                  double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test entry point. Starts the application with the loadtest profile on a random
+ * port (embedded H2, seeded by LoadTestSeeder), drives it over HTTP with a fixed number of
+ * closed-loop virtual users for warmup + duration, then prints and writes the
+ * per-endpoint report. All settings are loadtest.* system properties (see the loadtest
+ * profile in pom.xml); the same seed gives the same data and the same request sequence
+ * per virtual user.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int virtualUsers = Integer.getInteger("loadtest.virtual-users", 32);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        String mix = System.getProperty("loadtest.mix", "browse=60,cart=25,checkout=8,payment=5,review=2");
+        long seed = Long.getLong("loadtest.seed", 42);
+        String report = System.getProperty("loadtest.report", "target/loadtest-report.json");
+        Workload workload = new Workload(mix);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("loadtest")
+                .properties(
+                        "server.port=0",
+                        "management.server.port=-1",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest",
+                        "spring.jpa.open-in-view=true",
+                        "logging.level.root=WARN")
+                .run(args);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long[] productIds = context.getBean(ProductRepo.class).findAll().stream().mapToLong(Product::getId).toArray();
+            UserRepo userRepo = context.getBean(UserRepo.class);
+            if (userRepo.count() < virtualUsers) {
+                throw new IllegalStateException("loadtest.users must be at least loadtest.virtual-users");
+            }
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+            ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+            for (int i = 0; i < virtualUsers; i++) {
+                long userId = userRepo.findByEmail(LoadTestSeeder.email(i)).getId();
+                executor.execute(new VirtualUser(i, "http://localhost:" + port, client, objectMapper, workload,
+                        productIds, userId, seed, () -> System.nanoTime() < end));
+            }
+
+            System.out.printf("Running %d virtual users for %s after %s warmup, mix %s%n", virtualUsers, duration, warmup, mix);
+            Thread.sleep(warmup.toMillis());
+            workload.reset();
+            long measureStart = System.nanoTime();
+            executor.shutdown();
+            executor.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+
+            List<EndpointStats.Result> results = workload.results(seconds);
+            print(results, seconds);
+            write(report, objectMapper, virtualUsers, duration, warmup, mix, seed, seconds, results);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void print(List<EndpointStats.Result> results, double seconds) {
+        System.out.printf("%n%-42s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Req/s", "4xx", "Errors", "p50 ms", "p99 ms", "p99.9 ms", "Max ms");
+        long total = 0;
+        for (EndpointStats.Result result : results) {
+            total += result.requests();
+            System.out.printf("%-42s %9d %9.1f %8d %7.2f%% %9.2f %9.2f %9.2f %9.2f%n",
+                    result.endpoint(), result.requests(), result.throughputPerSecond(), result.rejected(),
+                    result.errorRate() * 100, result.p50Millis(), result.p99Millis(), result.p999Millis(),
+                    result.maxMillis());
+        }
+        System.out.printf("Total %d requests in %.1f s (%.1f req/s)%n", total, seconds, total / seconds);
+    }
+
+    private static void write(String report, ObjectMapper objectMapper, int virtualUsers, Duration duration,
+                              Duration warmup, String mix, long seed, double seconds,
+                              List<EndpointStats.Result> results) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("virtualUsers", virtualUsers);
+        settings.put("duration", duration.toString());
+        settings.put("warmup", warmup.toString());
+        settings.put("mix", mix);
+        settings.put("seed", seed);
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("settings", settings);
+        document.put("measuredSeconds", seconds);
+        document.put("endpoints", new ArrayList<>(results));
+
+        File file = new File(report);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, document);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.OrderRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Seeds the load test database: categories, products with images and specifications,
+ * users and a year of historical orders. Runs before the application reports ready, so
+ * the search index, sales column store, revenue rollup and dashboard counters all load
+ * the seeded data the way they would load a production database.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestSeeder implements ApplicationRunner {
+    static final String[] WORDS = {
+            "wireless", "bluetooth", "gaming", "laptop", "phone", "camera", "monitor", "keyboard",
+            "mouse", "speaker", "headphones", "charger", "tablet", "watch", "router", "printer"
+    };
+    static final String[] BRANDS = {"Acme", "Globex", "Initech", "Umbrella", "Hooli", "Stark", "Wayne", "Tyrell"};
+
+    private static final int CHUNK = 500;
+    private static final StatusOrder[] HISTORY_STATUSES = {
+            StatusOrder.DELIVERED, StatusOrder.DELIVERED, StatusOrder.DELIVERED, StatusOrder.SHIPPED,
+            StatusOrder.PROCESSING, StatusOrder.PENDING, StatusOrder.CANCELLED, StatusOrder.RETURNED
+    };
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.categories:20}")
+    private int categoryCount;
+
+    @Value("${loadtest.products:2000}")
+    private int productCount;
+
+    @Value("${loadtest.users:500}")
+    private int userCount;
+
+    @Value("${loadtest.orders:20000}")
+    private int orderCount;
+
+    static String email(int user) {
+        return "user" + user + "@loadtest.local";
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(new Category("Category " + i, "Load test category " + i));
+        }
+        categories = categoryRepo.saveAll(categories);
+
+        List<Product> products = new ArrayList<>(productCount);
+        for (int chunk = 0; chunk < productCount; chunk += CHUNK) {
+            List<Product> batch = new ArrayList<>();
+            for (int i = chunk; i < Math.min(productCount, chunk + CHUNK); i++) {
+                String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+                Product product = new Product(name, "A " + name + " for load testing",
+                        5 + random.nextInt(2000), categories.get(random.nextInt(categories.size())),
+                        1_000_000, BRANDS[random.nextInt(BRANDS.length)], "LT-" + i);
+                product.addImage("/images/loadtest/" + i + ".png");
+                product.addSpecification("color", WORDS[random.nextInt(WORDS.length)]);
+                batch.add(product);
+            }
+            products.addAll(inTransaction(() -> productRepo.saveAll(batch)));
+        }
+
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new User("loaduser" + i, "secret", email(i), "050000000", "Street " + i, false));
+        }
+        users = userRepo.saveAll(users);
+
+        LocalDate today = LocalDate.now();
+        for (int chunk = 0; chunk < orderCount; chunk += CHUNK) {
+            List<Order> batch = new ArrayList<>();
+            for (int i = chunk; i < Math.min(orderCount, chunk + CHUNK); i++) {
+                Order order = new Order(users.get(random.nextInt(users.size())), today.minusDays(random.nextInt(365)),
+                        HISTORY_STATUSES[random.nextInt(HISTORY_STATUSES.length)]);
+                int lines = 1 + random.nextInt(4);
+                for (int j = 0; j < lines; j++) {
+                    Product product = products.get(random.nextInt(products.size()));
+                    order.getOrderItems().add(new OrderItem(order, product, 1 + random.nextInt(3), product.getPrice()));
+                }
+                order.calculateTotalAmount();
+                batch.add(order);
+            }
+            inTransaction(() -> orderRepo.saveAll(batch));
+        }
+
+        System.out.printf("Seeded %d categories, %d products, %d users and %d orders in %.1f s%n",
+                categoryCount, productCount, userCount, orderCount, (System.nanoTime() - start) / 1e9);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One shopper in a closed loop: pick an action by the configured mix, call the API, repeat.
+ * Each virtual user owns one seeded user and its active cart, so carts are not shared
+ * between threads; checkouts leave orders behind for the payment action to pay.
+ */
+final class VirtualUser implements Runnable {
+    private static final String[] PAYMENT_METHODS = {"CREDIT_CARD", "PAYPAL", "BANK_TRANSFER"};
+
+    private final int index;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Workload workload;
+    private final long[] productIds;
+    private final long userId;
+    private final Random random;
+    private final BooleanSupplier running;
+    private final Deque<Long> unpaidOrders = new ArrayDeque<>();
+
+    private long cartId = -1;
+    private int cartLines;
+    // Endpoint of the last call in the current iteration, to charge client-side failures to
+    private String lastEndpoint;
+
+    VirtualUser(int index, String baseUrl, HttpClient client, ObjectMapper objectMapper, Workload workload,
+                long[] productIds, long userId, long seed, BooleanSupplier running) {
+        this.index = index;
+        this.baseUrl = baseUrl;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.workload = workload;
+        this.productIds = productIds;
+        this.userId = userId;
+        this.random = new Random(seed + index);
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        while (running.getAsBoolean()) {
+            Workload.Action action = workload.next(random);
+            lastEndpoint = null;
+            try {
+                switch (action) {
+                    case BROWSE -> browse();
+                    case CART -> addToCart();
+                    case CHECKOUT -> checkout();
+                    case PAYMENT -> pay();
+                    case REVIEW -> review();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // An unusable response (e.g. not JSON, missing id) counts as an error of the
+                // endpoint that sent it; the user resyncs its cart and keeps going
+                if (lastEndpoint != null) {
+                    workload.stats(lastEndpoint).recordFailure();
+                } else {
+                    workload.stats(action.name()).record(0, -1);
+                }
+                cartId = -1;
+                cartLines = 0;
+            }
+        }
+    }
+
+    private void browse() throws InterruptedException {
+        String keyword = LoadTestSeeder.WORDS[random.nextInt(LoadTestSeeder.WORDS.length)];
+        call("GET /products/search", get("/products/search?keyword=" + keyword + "&page=" + random.nextInt(3) + "&size=20"));
+    }
+
+    private void addToCart() throws InterruptedException {
+        if (cartId < 0 && !openCart()) {
+            return;
+        }
+        long productId = productIds[random.nextInt(productIds.length)];
+        Response response = call("POST /carts/{cartId}/products/{productId}",
+                post("/carts/" + cartId + "/products/" + productId + "?quantity=" + (1 + random.nextInt(3)), null));
+        if (response.ok()) {
+            cartLines++;
+        }
+    }
+
+    private void checkout() throws InterruptedException {
+        if (cartLines == 0) {
+            // Nothing to buy yet; shoppers fill the cart first
+            addToCart();
+            return;
+        }
+        Response response = call("POST /orders/cart/{cartId}", post("/orders/cart/" + cartId
+                + "?shippingAddress=" + encode("Street " + index) + "&shippingCity=" + encode("Tel Aviv")
+                + "&shippingZipCode=6100000&shippingCountry=Israel", null));
+        if (response.ok()) {
+            JsonNode id = response.json(objectMapper).get("id");
+            if (id != null) {
+                unpaidOrders.add(id.asLong());
+            }
+            cartId = -1;
+            cartLines = 0;
+        }
+    }
+
+    private void pay() throws InterruptedException {
+        Long orderId = unpaidOrders.poll();
+        if (orderId == null) {
+            browse();
+            return;
+        }
+        call("POST /orders/{id}/payment", post("/orders/" + orderId + "/payment?paymentMethod="
+                + PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]
+                + "&transactionId=lt-" + index + "-" + orderId, null));
+    }
+
+    private void review() throws InterruptedException {
+        long productId = productIds[random.nextInt(productIds.length)];
+        Map<String, Object> body = Map.of(
+                "user", Map.of("id", userId),
+                "product", Map.of("id", productId),
+                "rating", 1 + random.nextInt(5),
+                "comment", "Load test review " + index + "-" + productId);
+        call("POST /reviews", post("/reviews", body));
+    }
+
+    private boolean openCart() throws InterruptedException {
+        Response response = call("GET /carts/user/{email}/get-or-create",
+                get("/carts/user/" + LoadTestSeeder.email(index) + "/get-or-create"));
+        if (!response.ok()) {
+            return false;
+        }
+        JsonNode cart = response.json(objectMapper);
+        cartId = cart.get("id").asLong();
+        JsonNode items = cart.get("cartItems");
+        cartLines = items == null ? 0 : items.size();
+        return true;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (body == null) {
+            return request.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        try {
+            return request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Response call(String endpoint, HttpRequest request) throws InterruptedException {
+        lastEndpoint = endpoint;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            workload.stats(endpoint).record(System.nanoTime() - start, response.statusCode());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            workload.stats(endpoint).record(System.nanoTime() - start, -1);
+            return new Response(-1, new byte[0]);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Response(int status, byte[] body) {
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        JsonNode json(ObjectMapper objectMapper) {
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The action mix and the per-endpoint statistics of a run. The mix is given as weights,
+ * e.g. "browse=60,cart=25,checkout=8,payment=5,review=2"; actions left out get weight 0.
+ */
+final class Workload {
+    enum Action {
+        BROWSE, CART, CHECKOUT, PAYMENT, REVIEW
+    }
+
+    private final Action[] actions;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    Workload(String mix) {
+        Map<Action, Integer> weights = new EnumMap<>(Action.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight: " + entry);
+            }
+            weights.put(Action.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        this.actions = weights.keySet().toArray(new Action[0]);
+        this.cumulativeWeights = new int[actions.length];
+        int total = 0;
+        for (int i = 0; i < actions.length; i++) {
+            total += weights.get(actions[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The mix has no weight: " + mix);
+        }
+        this.totalWeight = total;
+    }
+
+    Action next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < actions.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    EndpointStats stats(String endpoint) {
+        return stats.computeIfAbsent(endpoint, EndpointStats::new);
+    }
+
+    void reset() {
+        stats.values().forEach(EndpointStats::reset);
+    }
+
+    List<EndpointStats.Result> results(double seconds) {
+        List<EndpointStats.Result> results = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            results.add(endpoint.result(seconds));
+        }
+        results.sort(Comparator.comparing(EndpointStats.Result::endpoint));
+        return results;
+    }
+}
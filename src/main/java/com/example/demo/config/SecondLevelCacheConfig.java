@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Gives Hibernate's second-level cache a JCache manager owned by this application context.
+ * The provider's default manager is shared by the whole JVM, so two contexts (test
+ * contexts, the load test next to a running instance) would otherwise serve each other's
+ * rows. Regions are configured in application.conf.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Any URI that is not a file or classpath resource loads application.conf
+        return provider.getCacheManager(URI.create("store-l2:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -25,6 +25,7 @@ public class SecurityConfig {
         // אם יש צורך להגדיר הרשאות גישה:
         http.authorizeHttpRequests(auth ->
                 auth.requestMatchers("/products/**", "/categories/**").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
         );
 
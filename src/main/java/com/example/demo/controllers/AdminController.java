@@ -1,11 +1,16 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.SalesColumnStatsDto;
 import com.example.demo.entities.StatusOrder;
-import com.example.demo.services.OrderService;
-import com.example.demo.services.ProductService;
+import com.example.demo.services.DailyRevenueService;
+import com.example.demo.services.DashboardStreamService;
+import com.example.demo.services.SalesColumnStore;
+import com.example.demo.services.StoreMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,19 +23,28 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     @Autowired
-    private OrderService orderService;
+    private StoreMetrics metrics;
 
     @Autowired
-    private ProductService productService;
+    private DashboardStreamService dashboardStreamService;
+
+    @Autowired
+    private DailyRevenueService dailyRevenueService;
+
+    @Autowired
+    private SalesColumnStore salesStore;
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         try {
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalOrders", orderService.getAll().size());
-            stats.put("pendingOrders", orderService.getByStatus(StatusOrder.PENDING).size());
-            stats.put("deliveredOrders", orderService.getByStatus(StatusOrder.DELIVERED).size());
-            stats.put("totalProducts", productService.getAll().size());
+            stats.put("totalOrders", metrics.totalOrders());
+            stats.put("pendingOrders", metrics.orderCount(StatusOrder.PENDING));
+            stats.put("deliveredOrders", metrics.orderCount(StatusOrder.DELIVERED));
+            stats.put("totalProducts", metrics.productCount());
+            stats.put("activeCarts", metrics.activeCartCount());
+            stats.put("ordersByStatus", metrics.orderCountsByStatus());
+            stats.put("totalRevenue", metrics.totalRevenue());
 
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
@@ -39,4 +53,24 @@ public class AdminController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
+
+    @GetMapping(path = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardStreamService.subscribe();
+    }
+
+    @PostMapping("/rollups/daily-revenue/rebuild")
+    public ResponseEntity<Void> rebuildDailyRevenue() {
+        try {
+            dailyRevenueService.rebuild();
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @GetMapping("/analytics/sales/stats")
+    public ResponseEntity<SalesColumnStatsDto> getSalesStoreStats() {
+        return ResponseEntity.ok(salesStore.stats());
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.CartViewDto;
 import com.example.demo.entities.Cart;
 import com.example.demo.entities.CartItem;
 import com.example.demo.services.CartService;
@@ -26,8 +27,8 @@ public class CartController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cart> getById(@PathVariable Long id) {
-        return cartService.getById(id)
+    public ResponseEntity<CartViewDto> getById(@PathVariable Long id) {
+        return cartService.getCartView(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -45,8 +46,8 @@ public class CartController {
     }
 
     @GetMapping("/user/id/{userId}/active")
-    public ResponseEntity<Cart> getActiveCartByUserId(@PathVariable Long userId) {
-        return cartService.getActiveCartByUserId(userId)
+    public ResponseEntity<CartViewDto> getActiveCartByUserId(@PathVariable Long userId) {
+        return cartService.getActiveCartView(userId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
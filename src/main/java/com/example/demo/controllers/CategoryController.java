@@ -1,5 +1,7 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.CategoryNodeDto;
+import com.example.demo.dto.CategoryTreeDto;
 import com.example.demo.entities.Category;
 import com.example.demo.services.CategoryService;
 import jakarta.persistence.EntityNotFoundException;
@@ -56,6 +58,26 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getSubcategories(parentId));
     }
 
+    @GetMapping("/tree")
+    public ResponseEntity<CategoryTreeDto> getTree() {
+        return ResponseEntity.ok(categoryService.getTree());
+    }
+
+    @GetMapping("/{id}/path")
+    public ResponseEntity<List<CategoryNodeDto>> getPath(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getPath(id));
+    }
+
+    @GetMapping("/{id}/children")
+    public ResponseEntity<List<CategoryNodeDto>> getChildren(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getChildren(id));
+    }
+
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<List<CategoryNodeDto>> getSubtree(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getSubtree(id));
+    }
+
     @GetMapping("/with-products")
     public ResponseEntity<List<Category>> getCategoriesWithProducts() {
         return ResponseEntity.ok(categoryService.getCategoriesWithProducts());
@@ -124,6 +146,8 @@ public class CategoryController {
             return ResponseEntity.ok().build();
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 }
\ No newline at end of file
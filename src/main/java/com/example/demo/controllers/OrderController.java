@@ -1,44 +1,72 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.dto.BulkStatusUpdateDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.DailyRevenueDto;
+import com.example.demo.dto.OrderPlacementDto;
+import com.example.demo.dto.OrderSummaryDto;
 import com.example.demo.entities.Order;
 import com.example.demo.entities.Payment;
 import com.example.demo.entities.PaymentMethod;
 import com.example.demo.entities.StatusOrder;
 import com.example.demo.exceptions.InvalidOrderStateException;
+import com.example.demo.exceptions.PlacementQueueFullException;
 import com.example.demo.exceptions.ResourceNotFoundException;
+import com.example.demo.services.IdempotencyStore;
+import com.example.demo.services.OrderExportService;
+import com.example.demo.services.OrderPlacementService;
 import com.example.demo.services.OrderService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
 @CrossOrigin(origins = "http://localhost:5173")
 public class OrderController {
 
+    private static final long MAX_PLACEMENT_WAIT_MS = 30_000;
+
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderPlacementService placementService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private OrderExportService exportService;
+
     // Basic CRUD operations
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAll() {
-        return ResponseEntity.ok(orderService.getAll());
+    public ResponseEntity<List<OrderSummaryDto>> getAll() {
+        return ResponseEntity.ok(orderService.getSummaries());
     }
 
     @GetMapping("/paginated")
-    public ResponseEntity<Page<Order>> getAllPaginated(@PageableDefault(size = 10) Pageable pageable) {
-        return ResponseEntity.ok(orderService.getAllPaginated(pageable));
+    public ResponseEntity<Page<OrderSummaryDto>> getAllPaginated(@PageableDefault(size = 10) Pageable pageable) {
+        return ResponseEntity.ok(orderService.getSummaries(pageable));
     }
 
     @GetMapping("/{id}")
@@ -113,6 +141,51 @@ public class OrderController {
         return ResponseEntity.ok(orderService.filterOrders(userId, status, startDate, endDate, minAmount, pageable));
     }
 
+    /**
+     * Stream all orders matching the filters as CSV (default) or NDJSON, without
+     * building the result in memory
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) StatusOrder status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Double minAmount) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out ->
+                exportService.export(exportFormat, userId, status, startDate, endDate, minAmount, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/seek")
+    public ResponseEntity<?> filterOrdersAfter(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) StatusOrder status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            CursorPageDto<Order> page = orderService.filterOrdersAfter(
+                    userId, status, startDate, endDate, minAmount, after, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Order status management
 
     @PutMapping("/{id}/status")
@@ -130,41 +203,105 @@ public class OrderController {
         }
     }
 
+    @PutMapping("/status:bulk")
+    public ResponseEntity<List<BulkStatusResultDto>> bulkUpdateStatus(@Valid @RequestBody BulkStatusUpdateDto request) {
+        String comment = request.getComment() == null ? "" : request.getComment();
+        return ResponseEntity.ok(orderService.bulkUpdateStatus(
+                request.getOrderIds(), request.getStatus(), comment, request.getTrackingNumbers()));
+    }
+
     // Order creation from cart
 
     @PostMapping("/cart/{cartId}")
     public ResponseEntity<?> createFromCart(
+            @PathVariable Long cartId,
+            @RequestParam String shippingAddress,
+            @RequestParam String shippingCity,
+            @RequestParam String shippingZipCode,
+            @RequestParam String shippingCountry,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("checkout:" + cartId, idempotencyKey, () -> {
+            try {
+                Order order = orderService.createOrderFromCart(
+                        cartId, shippingAddress, shippingCity, shippingZipCode, shippingCountry);
+                return ResponseEntity.ok(order);
+            } catch (ResourceNotFoundException e) {
+                return ResponseEntity.notFound().build();
+            } catch (InvalidOrderStateException | IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    @PostMapping("/cart/{cartId}/async")
+    public ResponseEntity<?> placeFromCart(
             @PathVariable Long cartId,
             @RequestParam String shippingAddress,
             @RequestParam String shippingCity,
             @RequestParam String shippingZipCode,
             @RequestParam String shippingCountry) {
         try {
-            Order order = orderService.createOrderFromCart(
+            OrderPlacementDto placement = placementService.submit(
                     cartId, shippingAddress, shippingCity, shippingZipCode, shippingCountry);
-            return ResponseEntity.ok(order);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/placements/" + placement.getPlacementId()))
+                    .body(placement);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
-        } catch (InvalidOrderStateException | IllegalArgumentException e) {
+        } catch (InvalidOrderStateException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PlacementQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
         }
     }
 
+    /**
+     * Poll a placement. With waitMs > 0 the request is held (without a servlet thread)
+     * until the placement finishes or the wait elapses, whichever comes first.
+     */
+    @GetMapping("/placements/{placementId}")
+    public DeferredResult<ResponseEntity<OrderPlacementDto>> getPlacement(
+            @PathVariable String placementId,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        Optional<OrderPlacementDto> current = placementService.getPlacement(placementId);
+        if (current.isEmpty() || waitMs <= 0 || !OrderPlacementService.PENDING.equals(current.get().getStatus())) {
+            DeferredResult<ResponseEntity<OrderPlacementDto>> result = new DeferredResult<>();
+            result.setResult(current.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+            return result;
+        }
+
+        long timeout = Math.min(waitMs, MAX_PLACEMENT_WAIT_MS);
+        DeferredResult<ResponseEntity<OrderPlacementDto>> result = new DeferredResult<>(timeout, () ->
+                placementService.getPlacement(placementId)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
+        placementService.awaitPlacement(placementId)
+                .ifPresent(done -> done.thenAccept(placement -> result.setResult(ResponseEntity.ok(placement))));
+        return result;
+    }
+
     // Payment processing
 
     @PostMapping("/{id}/payment")
     public ResponseEntity<?> processPayment(
             @PathVariable Long id,
             @RequestParam PaymentMethod paymentMethod,
-            @RequestParam String transactionId) {
-        try {
-            Payment payment = orderService.processPayment(id, paymentMethod, transactionId);
-            return ResponseEntity.ok(payment);
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
-        }
+            @RequestParam String transactionId,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("payment:" + id, idempotencyKey, () -> {
+            try {
+                Payment payment = orderService.processPayment(id, paymentMethod, transactionId);
+                return ResponseEntity.ok(payment);
+            } catch (ResourceNotFoundException e) {
+                return ResponseEntity.notFound().build();
+            } catch (InvalidOrderStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+            }
+        });
     }
 
     // Admin dashboard endpoints
@@ -181,6 +318,13 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getRevenueByDateRange(startDate, endDate));
     }
 
+    @GetMapping("/stats/revenue/daily")
+    public ResponseEntity<List<DailyRevenueDto>> getDailyRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(orderService.getDailyRevenue(startDate, endDate));
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<Order>> getRecentOrders() {
         return ResponseEntity.ok(orderService.getRecentOrders());
@@ -1,5 +1,6 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.ProductSalesDto;
 import com.example.demo.entities.OrderItem;
 import com.example.demo.exceptions.InvalidOrderStateException;
 import com.example.demo.exceptions.ResourceNotFoundException;
@@ -140,4 +141,11 @@ public class OrderItemController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         return ResponseEntity.ok(orderItemService.getItemsSoldInDateRange(startDate, endDate));
     }
+
+    @GetMapping("/reports/salesInDateRange")
+    public ResponseEntity<List<ProductSalesDto>> getSalesInDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(orderItemService.getSalesInDateRange(startDate, endDate));
+    }
 }
\ No newline at end of file
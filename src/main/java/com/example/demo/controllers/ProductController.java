@@ -1,20 +1,29 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.ProductFacetsDto;
+import com.example.demo.dto.ProductSummaryDto;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.ProductSpecification;
+import com.example.demo.services.ProductDetailCache;
+import com.example.demo.services.ProductImportService;
 import com.example.demo.services.ProductService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -26,27 +35,53 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductDetailCache productDetailCache;
+
+    @Autowired
+    private ProductImportService importService;
+
     // Get all products
     @GetMapping
-    public ResponseEntity<List<Product>> getAll() {
-        return ResponseEntity.ok(productService.getAll());
+    public ResponseEntity<List<ProductSummaryDto>> getAll() {
+        return ResponseEntity.ok(productService.getSummaries());
     }
 
     // Get all products with pagination
     @GetMapping("/paginated")
-    public ResponseEntity<Page<Product>> getAllPaginated(
+    public ResponseEntity<Page<ProductSummaryDto>> getAllPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        return ResponseEntity.ok(productService.getAllActive(pageable));
+        return ResponseEntity.ok(productService.getActiveSummaries(pageable));
     }
 
-    // Get product by ID
+    // Get active products with cursor (keyset) pagination
+    @GetMapping("/seek")
+    public ResponseEntity<?> getAllAfter(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            CursorPageDto<Product> page = productService.searchProductsAfter(
+                    name, categoryId, brand, minPrice, maxPrice, sortBy, after, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Get product by ID (ProductDetailDto, served pre-serialized from the product cache)
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable Long id) {
-        return productService.getById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getById(@PathVariable Long id) {
+        return productDetailCache.get(id)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -54,26 +89,61 @@ public class ProductController {
     @GetMapping("/search")
     public ResponseEntity<Page<Product>> search(
             @RequestParam(required = false) String name,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(productService.searchProducts(name, keyword, categoryId, brand, minPrice, maxPrice, pageable));
+    }
+
+    // Search products and return facet counts (brand, category, price buckets)
+    @GetMapping("/search/facets")
+    public ResponseEntity<ProductFacetsDto> searchWithFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) double[] priceBuckets,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productService.searchProducts(name, categoryId, brand, minPrice, maxPrice, pageable));
+        return ResponseEntity.ok(productService.searchWithFacets(
+                name, keyword, categoryId, brand, minPrice, maxPrice, priceBuckets, pageable));
     }
 
-    // Get products by category
+    // Get products by category (optionally including all its subcategories)
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<Page<Product>> getByCategory(
             @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "false") boolean includeSubcategories,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
+        if (includeSubcategories) {
+            return ResponseEntity.ok(productService.getByCategorySubtree(categoryId, pageable));
+        }
         return ResponseEntity.ok(productService.getByCategoryId(categoryId, pageable));
     }
 
+    // Get active products of a category and its subcategories with cursor pagination
+    @GetMapping("/category/{categoryId}/seek")
+    public ResponseEntity<?> getByCategorySubtreeAfter(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(productService.getByCategorySubtreeAfter(categoryId, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Get products by brand
     @GetMapping("/brand/{brand}")
     public ResponseEntity<List<Product>> getByBrand(@PathVariable String brand) {
@@ -143,6 +213,26 @@ public class ProductController {
         }
     }
 
+    // Bulk import (insert or update by brand and model) from a streamed CSV or NDJSON body;
+    // progress, row errors and the final totals come back as NDJSON lines
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        ProductImportService.Format importFormat;
+        try {
+            importFormat = ProductImportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        InputStream in = request.getInputStream();
+        StreamingResponseBody body = out -> importService.importProducts(importFormat, in, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ProductImportService.Format.NDJSON.getContentType()))
+                .body(body);
+    }
+
     // Add image to product
     @PostMapping("/{id}/images")
     public ResponseEntity<Product> addImage(
@@ -183,6 +273,12 @@ public class ProductController {
         }
     }
 
+    // Get stock availability (quantity minus active cart holds)
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Map<String, Object>> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(productService.getAvailability(id));
+    }
+
     // Update product stock
     @PatchMapping("/{id}/stock")
     public ResponseEntity<Product> updateStock(
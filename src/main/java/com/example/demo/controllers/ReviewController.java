@@ -1,5 +1,6 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dto.CursorPageDto;
 import com.example.demo.entities.Review;
 import com.example.demo.services.ReviewService;
 import jakarta.persistence.EntityNotFoundException;
@@ -81,6 +82,20 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.getApprovedByProductId(productId));
     }
 
+    // Get approved reviews by product ID with cursor (keyset) pagination
+    @GetMapping("/product/{productId}/approved/seek")
+    public ResponseEntity<?> getApprovedByProductIdAfter(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            CursorPageDto<Review> page = reviewService.getApprovedByProductIdAfter(productId, after, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Get reviews by user ID
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Review>> getByUserId(@PathVariable Long userId) {
@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk status transition for one order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResultDto {
+
+    public static final String UPDATED = "UPDATED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID_TRANSITION = "INVALID_TRANSITION";
+    // the order changed status while the bulk update was running
+    public static final String CONFLICT = "CONFLICT";
+
+    private Long orderId;
+
+    private String result;
+
+    // status before the update, null if the order was not found
+    private StatusOrder previousStatus;
+
+    private StatusOrder status;
+}
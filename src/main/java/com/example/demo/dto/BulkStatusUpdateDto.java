@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request body of PUT /orders/status:bulk, e.g. a warehouse manifest marking orders SHIPPED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateDto {
+
+    @NotEmpty(message = "Order ids are required")
+    @Size(max = 10000, message = "At most 10000 orders per request")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Target status is required")
+    private StatusOrder status;
+
+    private String comment;
+
+    // order id -> tracking number, optional
+    private Map<Long, String> trackingNumbers;
+}
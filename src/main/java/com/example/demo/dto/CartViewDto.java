@@ -0,0 +1,48 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cart with its lines, each carrying only the product id and name.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartViewDto {
+
+    private Long id;
+
+    private Long userId;
+
+    private boolean active;
+
+    private LocalDateTime updatedAt;
+
+    private List<Line> items;
+
+    private int totalQuantity;
+
+    private double totalPrice;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long cartItemId;
+
+        private Long productId;
+
+        private String productName;
+
+        private double unitPrice;
+
+        private int quantity;
+
+        private double lineTotal;
+    }
+}
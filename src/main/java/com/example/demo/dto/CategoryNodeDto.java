@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One category in a breadcrumb, child list or subtree listing; depth 0 is a top-level category.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryNodeDto {
+
+    private Long id;
+
+    private String name;
+
+    private boolean active;
+
+    // null for top-level categories
+    private Long parentId;
+
+    private int depth;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The whole category tree, top-level categories first, each with its subcategories nested.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDto {
+
+    private List<Node> roots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Node {
+        private Long id;
+
+        private String name;
+
+        private boolean active;
+
+        private List<Node> children;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. There is no total count; clients
+ * follow nextCursor until hasNext is false.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    public static <T> CursorPageDto<T> of(Slice<T> slice, Function<T, SeekCursor> cursorOf) {
+        List<T> content = slice.getContent();
+        String next = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            next = cursorOf.apply(content.get(content.size() - 1)).encode();
+        }
+        return new CursorPageDto<>(content, slice.getSize(), slice.hasNext(), next);
+    }
+}
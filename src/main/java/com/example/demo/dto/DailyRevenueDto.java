@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Revenue of one order date, with the split by current order status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenueDto {
+
+    private LocalDate orderDate;
+
+    private long orderCount;
+
+    private double grossAmount;
+
+    private Map<StatusOrder, StatusTotals> byStatus;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusTotals {
+        private long orderCount;
+
+        private double grossAmount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes since the previous dashboard snapshot; unchanged fields are null or empty.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDeltaDto {
+
+    // only statuses whose count changed, with their new count
+    private Map<StatusOrder, Long> ordersByStatus;
+
+    private Double totalRevenue;
+
+    private Long totalProducts;
+
+    private Long activeCarts;
+
+    // products that dropped below the threshold or whose low quantity changed
+    private List<DashboardSnapshotDto.LowStockItem> lowStockAlerts;
+
+    // products that are no longer low on stock
+    private List<Long> lowStockCleared;
+
+    private LocalDateTime takenAt;
+}
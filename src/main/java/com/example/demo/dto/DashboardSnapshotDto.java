@@ -0,0 +1,42 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full dashboard state, sent as the first event of a dashboard stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSnapshotDto {
+
+    private Map<StatusOrder, Long> ordersByStatus;
+
+    private double totalRevenue;
+
+    private long totalProducts;
+
+    private long activeCarts;
+
+    private List<LowStockItem> lowStock;
+
+    private LocalDateTime takenAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LowStockItem {
+        private Long productId;
+
+        private String name;
+
+        private int quantity;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of an asynchronous checkout, returned with 202 on submit and by the poll endpoint.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPlacementDto {
+
+    private String placementId;
+
+    private Long cartId;
+
+    // PENDING, COMPLETED or FAILED
+    private String status;
+
+    // set once the order was created
+    private Long orderId;
+
+    // set when the checkout failed
+    private String error;
+
+    private LocalDateTime submittedAt;
+
+    private LocalDateTime completedAt;
+}
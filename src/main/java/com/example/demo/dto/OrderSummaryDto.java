@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Order as shown in lists, with the number of line items instead of the items themselves.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDto {
+
+    private Long id;
+
+    private Long userId;
+
+    private LocalDate orderDate;
+
+    private LocalDateTime createdAt;
+
+    private StatusOrder status;
+
+    private double totalAmount;
+
+    private String trackingNumber;
+
+    private long itemCount;
+}
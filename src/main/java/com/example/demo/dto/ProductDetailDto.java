@@ -0,0 +1,73 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Product page: scalar fields, category, images, specifications and the rating summary
+ * of approved reviews.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDetailDto {
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private double price;
+
+    private int quantity;
+
+    private String brand;
+
+    private String model;
+
+    private boolean active;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // null when there are no approved reviews
+    private Double averageRating;
+
+    private long reviewCount;
+
+    private List<Image> images;
+
+    private List<Specification> specifications;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Image {
+        private Long id;
+
+        private String imageUrl;
+
+        private boolean main;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Specification {
+        private Long id;
+
+        private String name;
+
+        private String value;
+    }
+}
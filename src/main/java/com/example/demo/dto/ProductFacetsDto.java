@@ -0,0 +1,48 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search page plus facet counts for the storefront filter sidebar.
+ * All counts are computed over the full result set of the current filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDto {
+
+    private List<Product> content;
+
+    private int page;
+
+    private int size;
+
+    private long totalElements;
+
+    // brand -> number of matching products
+    private Map<String, Long> brands;
+
+    // category id -> number of matching products
+    private Map<Long, Long> categories;
+
+    private List<PriceBucket> priceBuckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        // inclusive lower bound
+        private double from;
+
+        // exclusive upper bound, null for the open-ended last bucket
+        private Double to;
+
+        private long count;
+    }
+}
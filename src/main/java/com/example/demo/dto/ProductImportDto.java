@@ -0,0 +1,47 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a bulk product import (POST /products/import). One is reported after every
+ * committed chunk with running totals and the row errors found since the previous report;
+ * the last one has done set and covers the whole file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportDto {
+
+    // data rows read so far (header and blank lines not counted)
+    private long rows;
+
+    private long inserted;
+
+    private long updated;
+
+    // rows replaced by a later row with the same brand and model in the same chunk
+    private long duplicates;
+
+    private long failed;
+
+    private long elapsedMs;
+
+    private boolean done;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based line in the uploaded file
+        private long line;
+
+        private String message;
+    }
+}
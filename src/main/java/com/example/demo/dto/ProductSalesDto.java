@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units sold and revenue of one product over a report period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDto {
+
+    private long productId;
+
+    private long quantity;
+
+    private double revenue;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Product as shown in lists: scalar fields, category and main image only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+
+    private Long id;
+
+    private String name;
+
+    private double price;
+
+    private int quantity;
+
+    private String brand;
+
+    private String model;
+
+    private boolean active;
+
+    private Long categoryId;
+
+    private String categoryName;
+
+    private String mainImageUrl;
+}
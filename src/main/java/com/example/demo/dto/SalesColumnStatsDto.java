@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size and memory footprint of the in-memory sales column store.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesColumnStatsDto {
+
+    private long lines;
+
+    private int chunks;
+
+    private int products;
+
+    private long allocatedBytes;
+
+    // Allocated bytes divided by stored lines (includes unused chunk capacity)
+    private double bytesPerLine;
+
+    private boolean loaded;
+}
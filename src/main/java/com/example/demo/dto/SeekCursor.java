@@ -0,0 +1,60 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination token holding the sort key and id of the last row
+ * of the previous page. Clients only pass it back as the "after" parameter.
+ */
+@Data
+@AllArgsConstructor
+public class SeekCursor {
+
+    private String key;
+
+    private long id;
+
+    public static SeekCursor of(Object key, Long id) {
+        return new SeekCursor(String.valueOf(key), id);
+    }
+
+    public String encode() {
+        String raw = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by encode()
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static SeekCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new SeekCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public LocalDateTime keyAsDateTime() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor key: " + key);
+        }
+    }
+
+    public double keyAsDouble() {
+        try {
+            return Double.parseDouble(key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor key: " + key);
+        }
+    }
+}
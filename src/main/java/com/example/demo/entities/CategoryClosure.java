@@ -0,0 +1,22 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// One row per (ancestor, descendant) pair of the category tree, including each category
+// paired with itself at depth 0; maintained by CategoryClosureService
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@ToString
+
+@Entity
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+public class CategoryClosure {
+    @EmbeddedId
+    private CategoryClosureId id;
+
+    private int depth;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+
+@Embeddable
+public class CategoryClosureId implements Serializable {
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Column(name = "descendant_id")
+    private Long descendantId;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Rollup of orders per order date and status, maintained by DailyRevenueService
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@ToString
+
+@Entity
+@Table(name = "daily_revenue")
+public class DailyRevenue {
+    @EmbeddedId
+    private DailyRevenueId id;
+
+    private long orderCount;
+
+    private double grossAmount;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+
+@Embeddable
+public class DailyRevenueId implements Serializable {
+    @Column(name = "order_date")
+    private LocalDate orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private StatusOrder status;
+}
@@ -13,10 +13,14 @@ import java.util.List;
 @ToString
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id")
+})
 public class Order {
+    // Pooled sequence ids let Hibernate batch the checkout inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne
@@ -42,12 +46,18 @@ public class Order {
     private String trackingNumber;
 
     // Payment details - reference to payment entity
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL)
     private Payment payment;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderStatusHistory> statusHistory = new ArrayList<>();
 
@@ -68,8 +78,11 @@ public class Order {
         this.addStatusHistory(statusOrder, "Order created");
     }
 
-    // Method to update order status
+    // Method to update order status; history is only recorded for an actual change
     public void updateStatus(StatusOrder newStatus, String comment) {
+        if (newStatus == this.statusOrder) {
+            return;
+        }
         this.statusOrder = newStatus;
         this.addStatusHistory(newStatus, comment);
         this.updatedAt = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package com.example.demo.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
@@ -13,10 +14,17 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
+    // Pooled sequence ids let Hibernate batch the checkout inserts; the pool is larger
+    // than the others because every checkout draws one id per line item
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 500)
     private Long id;
 
+    // Back-reference: accepted in request bodies, not written back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "order_id")
     private Order order;
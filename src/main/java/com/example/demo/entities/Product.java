@@ -1,9 +1,12 @@
 package com.example.demo.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +17,13 @@ import java.util.List;
 @ToString
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@Table(indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_category_id", columnList = "category_id, id"),
+        @Index(name = "idx_product_model_brand", columnList = "model, brand")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,12 +54,21 @@ public class Product {
 
     private boolean active = true;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-images")
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ProductImage> images = new ArrayList<>();
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-specifications")
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ProductSpecification> specifications = new ArrayList<>();
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "product")
     private List<Review> reviews = new ArrayList<>();
 
@@ -13,7 +13,9 @@ import java.time.LocalDateTime;
 @ToString
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_product_approved_created", columnList = "product_id, approved, created_at, id")
+})
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
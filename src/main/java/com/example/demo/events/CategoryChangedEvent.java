@@ -0,0 +1,14 @@
+package com.example.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by CategoryService whenever a category is created, changed, moved or removed.
+ * Listeners that keep derived read models in sync should react after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+}
@@ -0,0 +1,49 @@
+package com.example.demo.events;
+
+import com.example.demo.entities.Order;
+import com.example.demo.entities.StatusOrder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published when orders are created, deleted or change status, with the amounts
+ * involved. Bulk transitions publish one event for the whole batch. Listeners that
+ * maintain revenue aggregates should react after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderRevenueChangedEvent {
+    private final List<Change> changes;
+
+    public static OrderRevenueChangedEvent created(Order order) {
+        return new OrderRevenueChangedEvent(List.of(
+                new Change(order.getOrderDate(), null, order.getStatusOrder(), order.getTotalAmount())));
+    }
+
+    public static OrderRevenueChangedEvent deleted(Order order) {
+        return new OrderRevenueChangedEvent(List.of(
+                new Change(order.getOrderDate(), order.getStatusOrder(), null, order.getTotalAmount())));
+    }
+
+    public static OrderRevenueChangedEvent statusChanged(Order order, StatusOrder from) {
+        return new OrderRevenueChangedEvent(List.of(
+                new Change(order.getOrderDate(), from, order.getStatusOrder(), order.getTotalAmount())));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Change {
+        private final LocalDate orderDate;
+
+        // null when the order was created
+        private final StatusOrder from;
+
+        // null when the order was deleted
+        private final StatusOrder to;
+
+        private final double amount;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.events;
+
+import com.example.demo.entities.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by ProductService whenever a product is created, updated or removed.
+ * Listeners that keep derived read models in sync should react after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+
+    // null when the product was deleted
+    private final Product product;
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Published when data shown on the product page changes without the product itself
+ * going through ProductService: stock moved by checkout or cancellation, or the rating
+ * summary changed by a review. Carries ids only; listeners react after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductDetailsChangedEvent {
+    private final Collection<Long> productIds;
+}
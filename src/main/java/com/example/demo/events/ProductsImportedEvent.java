@@ -0,0 +1,18 @@
+package com.example.demo.events;
+
+import com.example.demo.entities.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by ProductImportService for each committed chunk of a bulk import. The
+ * products are detached copies built from the imported rows (no images, specifications
+ * or reviews); listeners react after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private final List<Product> products;
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exceptions;
+
+public class PlacementQueueFullException extends RuntimeException {
+    public PlacementQueueFullException(String message) {
+        super(message);
+    }
+}
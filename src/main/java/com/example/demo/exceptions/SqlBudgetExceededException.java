@@ -0,0 +1,7 @@
+package com.example.demo.exceptions;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business distributions published next to the service timers:
+ * store.checkout.items (units per order) and store.cart.size (lines in a cart when it is
+ * checked out). Meters are registered once, so recording does not allocate.
+ */
+@Component
+public class BusinessMetrics {
+    private final DistributionSummary checkoutItems;
+    private final DistributionSummary cartSize;
+
+    public BusinessMetrics(MeterRegistry meterRegistry) {
+        this.checkoutItems = DistributionSummary.builder("store.checkout.items")
+                .description("Units per checked out order")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.cartSize = DistributionSummary.builder("store.cart.size")
+                .description("Lines in a cart at checkout")
+                .baseUnit("lines")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void checkoutCompleted(int cartLines, int units) {
+        cartSize.record(cartLines);
+        checkoutItems.record(units);
+    }
+}
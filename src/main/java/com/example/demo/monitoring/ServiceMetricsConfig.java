@@ -0,0 +1,41 @@
+package com.example.demo.monitoring;
+
+import com.example.demo.services.CartService;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.ProductService;
+import com.example.demo.services.ReviewService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+
+/**
+ * Applies ServiceTimingInterceptor to the public methods of the core services. The advisor
+ * runs outside the transaction interceptor, so the recorded time includes the commit.
+ */
+@Configuration
+public class ServiceMetricsConfig {
+    private static final Set<Class<?>> TIMED_SERVICES =
+            Set.of(OrderService.class, CartService.class, ProductService.class, ReviewService.class);
+
+    @Bean
+    public static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers()) && TIMED_SERVICES.contains(method.getDeclaringClass());
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ServiceTimingInterceptor(meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
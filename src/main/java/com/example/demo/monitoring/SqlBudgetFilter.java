@@ -0,0 +1,212 @@
+package com.example.demo.monitoring;
+
+import com.example.demo.exceptions.SqlBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Counts the SQL statements, rows and entity loads of each HTTP request.
+ * Results are recorded as distribution summaries per method and path pattern
+ * (store.sql.statements / rows / entity.loads), optionally returned as X-SQL-* headers,
+ * and checked against the per-endpoint statement budgets. Statements repeated
+ * repeat-threshold times in one request are counted as N+1 suspects and, with call site
+ * capture on (dev profile), logged together with the application frames that issued them.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String ENTITY_LOADS_HEADER = "X-SQL-Entity-Loads";
+    public static final String BUDGET_HEADER = "X-SQL-Budget";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlBudgetFilter.class);
+    private static final String UNMAPPED = "UNMAPPED";
+
+    @Autowired
+    private SqlMetricsProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.begin(properties.isCallSites());
+        HeaderWritingResponse wrapped = properties.isHeaders() ? new HeaderWritingResponse(response, request, stats) : null;
+        try {
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            SqlRequestStats.end();
+        }
+        if (wrapped != null) {
+            // Final counts, unless the body already started and the headers went out with it
+            wrapped.writeHeaders();
+        }
+        record(request, stats);
+    }
+
+    private void record(HttpServletRequest request, SqlRequestStats stats) {
+        String method = request.getMethod();
+        String pattern = pattern(request);
+        Tags tags = Tags.of("method", method, "uri", pattern);
+        DistributionSummary.builder("store.sql.statements").tags(tags).register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("store.sql.rows").tags(tags).register(meterRegistry)
+                .record(stats.getRows());
+        DistributionSummary.builder("store.sql.entity.loads").tags(tags).register(meterRegistry)
+                .record(stats.getEntityLoads());
+
+        List<SqlRequestStats.Statement> repeated = stats.repeatedStatements(properties.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            Counter.builder("store.sql.repeated").tags(tags).register(meterRegistry).increment();
+            if (properties.isCallSites()) {
+                log.warn("Possible N+1 in {} {} ({}):{}", method, pattern,
+                        request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE), describe(repeated));
+            }
+        }
+
+        Integer budget = properties.budgetFor(method, pattern);
+        if (budget != null && stats.getStatements() > budget) {
+            Counter.builder("store.sql.budget.exceeded").tags(tags).register(meterRegistry).increment();
+            if (properties.isFailOnBudget()) {
+                throw new SqlBudgetExceededException(method + " " + pattern + " ran " + stats.getStatements()
+                        + " SQL statements, budget is " + budget + describe(repeated));
+            }
+        }
+    }
+
+    private static String pattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNMAPPED;
+    }
+
+    private static String describe(List<SqlRequestStats.Statement> repeated) {
+        StringBuilder text = new StringBuilder();
+        for (SqlRequestStats.Statement statement : repeated) {
+            text.append("\n  ").append(statement.getCount()).append("x ").append(statement.getSql());
+            for (String callSite : statement.getCallSites()) {
+                text.append("\n    at ").append(callSite);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Adds the X-SQL-* headers just before the first body byte is written (headers cannot
+     * change after that) and again at the end of the request if the response is still open.
+     */
+    private final class HeaderWritingResponse extends HttpServletResponseWrapper {
+        private final HttpServletRequest request;
+        private final SqlRequestStats stats;
+        private ServletOutputStream outputStream;
+        private boolean started;
+
+        HeaderWritingResponse(HttpServletResponse response, HttpServletRequest request, SqlRequestStats stats) {
+            super(response);
+            this.request = request;
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (isCommitted()) {
+                return;
+            }
+            setHeader(STATEMENTS_HEADER, Integer.toString(stats.getStatements()));
+            setHeader(ROWS_HEADER, Long.toString(stats.getRows()));
+            setHeader(ENTITY_LOADS_HEADER, Integer.toString(stats.getEntityLoads()));
+            Integer budget = properties.budgetFor(request.getMethod(), pattern(request));
+            if (budget != null) {
+                setHeader(BUDGET_HEADER, budget.toString());
+            }
+        }
+
+        private void beforeBody() {
+            if (!started) {
+                started = true;
+                writeHeaders();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        beforeBody();
+                        target.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        beforeBody();
+                        target.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        beforeBody();
+                        target.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        beforeBody();
+                        target.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        target.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeBody();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeBody();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that counts executed statements and fetched rows into the SqlRequestStats of
+ * the current request. Counting at the JDBC level also covers JdbcTemplate batches
+ * (rollups, bulk status updates), which never pass through Hibernate. Connections taken
+ * outside a request are returned unwrapped, so background jobs pay nothing.
+ */
+public class SqlCountingDataSource extends DelegatingDataSource {
+
+    public SqlCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        if (SqlRequestStats.current() == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement / prepareCall carry their SQL; createStatement passes it to execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), statement, new StatementHandler(sql));
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        return (T) Proxy.newProxyInstance(SqlCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ResultSet countRows(ResultSet resultSet) {
+        if (resultSet == null) {
+            return null;
+        }
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlRequestStats stats = SqlRequestStats.current();
+                if (stats != null) {
+                    stats.rowFetched();
+                }
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class StatementHandler implements Handler {
+        private final String preparedSql;
+
+        StatementHandler(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object handle(Object target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                SqlRequestStats stats = SqlRequestStats.current();
+                if (stats != null) {
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String text ? text : "<batch>";
+                    stats.statementExecuted(sql);
+                }
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof ResultSet resultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return countRows(resultSet);
+            }
+            return result;
+        }
+    }
+}
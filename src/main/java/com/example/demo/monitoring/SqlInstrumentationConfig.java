@@ -0,0 +1,51 @@
+package com.example.demo.monitoring;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the per-request SQL counters: the DataSource is wrapped to count statements and
+ * rows, and a Hibernate post-load listener counts entity instances hydrated.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlMetricsProperties.class)
+public class SqlInstrumentationConfig {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlCountingDataSource)) {
+                    return new SqlCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void registerEntityLoadListener() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, event -> {
+                    SqlRequestStats stats = SqlRequestStats.current();
+                    if (stats != null) {
+                        stats.entityLoaded();
+                    }
+                });
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.monitoring;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the per-request SQL instrumentation (store.sql-metrics.*).
+ * Budgets are the maximum number of statements per endpoint, keyed by HTTP method and
+ * then by the mapped path pattern, e.g. store.sql-metrics.budgets.GET[/products/{id}]=3
+ */
+@Data
+@ConfigurationProperties(prefix = "store.sql-metrics")
+public class SqlMetricsProperties {
+    private boolean enabled = true;
+    // X-SQL-* response headers
+    private boolean headers = false;
+    // Same statement this many times in one request is reported as an N+1
+    private int repeatThreshold = 10;
+    // Record where repeated statements come from and log them (dev profile)
+    private boolean callSites = false;
+    // Throw SqlBudgetExceededException instead of only counting it (integration tests)
+    private boolean failOnBudget = false;
+    private Map<String, Map<String, Integer>> budgets = new HashMap<>();
+
+    public Integer budgetFor(String method, String pattern) {
+        Map<String, Integer> byPattern = budgets.get(method);
+        return byPattern == null ? null : byPattern.get(pattern);
+    }
+}
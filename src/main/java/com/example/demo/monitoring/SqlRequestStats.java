@@ -0,0 +1,146 @@
+package com.example.demo.monitoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SQL work done while serving one HTTP request: statements executed, rows read, entities
+ * loaded and how many times each distinct statement ran. Bound to the request thread by
+ * SqlBudgetFilter; work on other threads (schedulers, after-commit listeners running
+ * elsewhere, async placement workers) is not counted.
+ */
+public final class SqlRequestStats {
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+    private static final int MAX_CALL_SITES = 5;
+    private static final int CALL_SITE_DEPTH = 3;
+    private static final String APP_PACKAGE = "com.example.demo.";
+    private static final String OWN_PACKAGE = "com.example.demo.monitoring.";
+    private static final String JSON_PACKAGE = "com.fasterxml.jackson.";
+
+    private final boolean captureCallSites;
+    private final Map<String, Statement> statementsBySql = new HashMap<>();
+    private int statements;
+    private long rows;
+    private int entityLoads;
+
+    private SqlRequestStats(boolean captureCallSites) {
+        this.captureCallSites = captureCallSites;
+    }
+
+    static SqlRequestStats begin(boolean captureCallSites) {
+        SqlRequestStats stats = new SqlRequestStats(captureCallSites);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Stats of the request being served on this thread, or null outside a request
+     */
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(String sql) {
+        statements++;
+        Statement statement = statementsBySql.computeIfAbsent(sql, Statement::new);
+        statement.count++;
+        // The first execution is never part of a repeat; skip the stack walk for it
+        if (captureCallSites && statement.count > 1 && statement.callSites.size() < MAX_CALL_SITES) {
+            statement.callSites.add(callSite());
+        }
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    /**
+     * Statements that ran at least threshold times in this request (the N+1 signature), most repeated first
+     */
+    public List<Statement> repeatedStatements(int threshold) {
+        List<Statement> repeated = new ArrayList<>();
+        for (Statement statement : statementsBySql.values()) {
+            if (statement.count >= threshold) {
+                repeated.add(statement);
+            }
+        }
+        repeated.sort((a, b) -> Integer.compare(b.count, a.count));
+        return repeated;
+    }
+
+    // Innermost application frames outside this package, e.g. "services.CartService.getTotal:88 <- controllers...";
+    // lazy loads triggered while Jackson writes the response are marked as such
+    private static String callSite() {
+        return StackWalker.getInstance().walk(frames -> {
+            StringBuilder site = new StringBuilder();
+            int depth = 0;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (depth == 0 && site.isEmpty() && className.startsWith(JSON_PACKAGE)) {
+                    site.append("(JSON serialization) ");
+                }
+                if (!className.startsWith(APP_PACKAGE) || className.startsWith(OWN_PACKAGE) || className.contains("$$")) {
+                    continue;
+                }
+                if (depth > 0) {
+                    site.append(" <- ");
+                }
+                site.append(className, APP_PACKAGE.length(), className.length())
+                        .append('.').append(frame.getMethodName()).append(':').append(frame.getLineNumber());
+                if (++depth == CALL_SITE_DEPTH) {
+                    break;
+                }
+            }
+            return site.toString();
+        });
+    }
+
+    public static final class Statement {
+        private final String sql;
+        private final Set<String> callSites = new LinkedHashSet<>();
+        private int count;
+
+        private Statement(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Distinct call sites of the repeated executions; empty unless call site capture is on
+         */
+        public Set<String> getCallSites() {
+            return callSites;
+        }
+    }
+}
@@ -30,4 +30,16 @@ public interface CartRepo extends JpaRepository<Cart, Long> {
 
     // מציאת עגלות שלא עודכנו מזמן אבל עדיין פעילות
     List<Cart> findByActiveTrueAndUpdatedAtBefore(LocalDateTime dateTime);
-}
\ No newline at end of file
+
+    // תצוגת עגלה: פרטי העגלה ושורות הפריטים עם שם המוצר בשאילתה אחת
+    @Query("SELECT c.id, c.user.id, c.active, c.updatedAt, ci.id, p.id, p.name, ci.unitPrice, ci.quantity " +
+            "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p " +
+            "WHERE c.id = :cartId ORDER BY ci.id")
+    List<Object[]> findCartViewRows(@Param("cartId") Long cartId);
+
+    // תצוגת העגלה הפעילה של משתמש בשאילתה אחת
+    @Query("SELECT c.id, c.user.id, c.active, c.updatedAt, ci.id, p.id, p.name, ci.unitPrice, ci.quantity " +
+            "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p " +
+            "WHERE c.user.id = :userId AND c.active = true ORDER BY ci.id")
+    List<Object[]> findActiveCartViewRows(@Param("userId") Long userId);
+}
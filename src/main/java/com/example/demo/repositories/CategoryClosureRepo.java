@@ -0,0 +1,23 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.CategoryClosure;
+import com.example.demo.entities.CategoryClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepo extends JpaRepository<CategoryClosure, CategoryClosureId> {
+
+    // מזהי הקטגוריה וכל צאצאיה
+    @Query("SELECT cc.id.descendantId FROM CategoryClosure cc WHERE cc.id.ancestorId = :categoryId " +
+            "ORDER BY cc.depth, cc.id.descendantId")
+    List<Long> findSubtreeIds(@Param("categoryId") Long categoryId);
+
+    // מספר השורות העצמיות (עומק 0) - אמור להיות שווה למספר הקטגוריות
+    @Query("SELECT COUNT(cc) FROM CategoryClosure cc WHERE cc.depth = 0")
+    long countSelfLinks();
+}
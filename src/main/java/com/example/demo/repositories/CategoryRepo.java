@@ -1,8 +1,11 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,25 +14,53 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepo extends JpaRepository<Category, Long> {
 
+    // כל הקטגוריות (נשמר במטמון השאילתות)
+    @Override
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
+    List<Category> findAll();
+
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     Category findByName(String name);
 
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     Optional<Category> findByNameIgnoreCase(String name);
 
     boolean existsByName(String name);
 
     // מציאת קטגוריות ראשיות (שאין להן הורה)
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     List<Category> findByParentIsNull();
 
     // מציאת תת-קטגוריות של קטגוריה מסוימת
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     List<Category> findByParentId(Long parentId);
 
     // מציאת קטגוריות אקטיביות בלבד
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     List<Category> findByActiveTrue();
 
     // מציאת קטגוריות שיש להן מוצרים
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     @Query("SELECT DISTINCT c FROM Category c JOIN c.products p WHERE p.active = true")
     List<Category> findCategoriesWithActiveProducts();
 
     // מציאת קטגוריות לפי חיפוש טקסט
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "category-queries")})
     List<Category> findByNameContainingIgnoreCase(String keyword);
-}
\ No newline at end of file
+
+    // כל הקטגוריות כשורות (מזהה, שם, פעילה, מזהה הורה) - לבניית עץ הקטגוריות בזיכרון
+    @Query("SELECT c.id, c.name, c.active, p.id FROM Category c LEFT JOIN c.parent p ORDER BY c.id")
+    List<Object[]> findTreeRows();
+
+    // שם ומזהה של כל הקטגוריות - לזיהוי קטגוריה לפי שם ביבוא מוצרים
+    @Query("SELECT c.name, c.id FROM Category c")
+    List<Object[]> findNamesAndIds();
+}
@@ -0,0 +1,28 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DailyRevenue;
+import com.example.demo.entities.DailyRevenueId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRevenueRepo extends JpaRepository<DailyRevenue, DailyRevenueId> {
+
+    // שורות הסיכום היומי בטווח תאריכים
+    @Query("SELECT d FROM DailyRevenue d WHERE d.id.orderDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY d.id.orderDate, d.id.status")
+    List<DailyRevenue> findByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // סיכום הכנסות לפי תאריך מתוך טבלת הסיכום (במקום GROUP BY על כל ההזמנות)
+    @Query("SELECT d.id.orderDate, SUM(d.grossAmount) FROM DailyRevenue d " +
+            "WHERE d.id.orderDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY d.id.orderDate " +
+            "HAVING SUM(d.orderCount) > 0 " +
+            "ORDER BY d.id.orderDate")
+    List<Object[]> sumGrossAmountByDate(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
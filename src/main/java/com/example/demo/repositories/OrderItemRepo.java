@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -21,6 +22,11 @@ public interface OrderItemRepo extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByProductId(Long productId);
 
+    // כמויות שהוזמנו לכל מוצר עבור קבוצת הזמנות (להחזרת מלאי)
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+            "WHERE oi.order.id IN :orderIds GROUP BY oi.product.id")
+    List<Object[]> sumQuantitiesByProductForOrders(@Param("orderIds") Collection<Long> orderIds);
+
     @Query("SELECT oi.product.id, oi.product.name, SUM(oi.quantity) as totalSold " +
             "FROM OrderItem oi " +
             "GROUP BY oi.product.id, oi.product.name " +
@@ -4,14 +4,20 @@ import com.example.demo.entities.Order;
 import com.example.demo.entities.StatusOrder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepo extends JpaRepository<Order, Long> {
@@ -25,6 +31,10 @@ public interface OrderRepo extends JpaRepository<Order, Long> {
 
     List<Order> findByStatusOrder(StatusOrder statusOrder);
 
+    // סטטוס, סכום ותאריך נוכחיים לקבוצת הזמנות בשאילתה אחת (לעדכון סטטוס מרוכז)
+    @Query("SELECT o.id, o.statusOrder, o.totalAmount, o.orderDate FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusesByIds(@Param("ids") Collection<Long> ids);
+
     // מציאת הזמנות לפי סטטוס עם דפדוף
     Page<Order> findByStatusOrder(StatusOrder statusOrder, Pageable pageable);
 
@@ -47,6 +57,10 @@ public interface OrderRepo extends JpaRepository<Order, Long> {
     @Query("SELECT o.statusOrder, COUNT(o) FROM Order o GROUP BY o.statusOrder")
     List<Object[]> countOrdersByStatus();
 
+    // סיכום הכנסות לפי סטטוס
+    @Query("SELECT o.statusOrder, SUM(o.totalAmount) FROM Order o GROUP BY o.statusOrder")
+    List<Object[]> sumOrderAmountsByStatus();
+
     // סיכום הכנסות לפי תאריך
     @Query("SELECT o.orderDate, SUM(o.totalAmount) FROM Order o " +
             "WHERE o.orderDate BETWEEN :startDate AND :endDate " +
@@ -72,4 +86,56 @@ public interface OrderRepo extends JpaRepository<Order, Long> {
             @Param("minAmount") Double minAmount,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // דפדוף לפי מפתח (keyset) - אותם סינונים, בלי שאילתת ספירה
+    @Query("SELECT o FROM Order o WHERE " +
+            "(:userId IS NULL OR o.user.id = :userId) AND " +
+            "(:status IS NULL OR o.statusOrder = :status) AND " +
+            "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+            "(:endDate IS NULL OR o.orderDate <= :endDate) AND " +
+            "(:minAmount IS NULL OR o.totalAmount >= :minAmount) AND " +
+            "(o.createdAt < :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findOrdersByFiltersAfter(
+            @Param("userId") Long userId,
+            @Param("status") StatusOrder status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("minAmount") Double minAmount,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // ייצוא הזמנות לפי אותם מסננים כזרם של שורות שטוחות, בלי לטעון ישויות לזיכרון
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.id, o.user.id, o.orderDate, o.createdAt, o.updatedAt, o.statusOrder, o.totalAmount, " +
+            "o.shippingAddress, o.shippingCity, o.shippingZipCode, o.shippingCountry, o.trackingNumber " +
+            "FROM Order o WHERE " +
+            "(:userId IS NULL OR o.user.id = :userId) AND " +
+            "(:status IS NULL OR o.statusOrder = :status) AND " +
+            "(:startDate IS NULL OR o.orderDate >= :startDate) AND " +
+            "(:endDate IS NULL OR o.orderDate <= :endDate) AND " +
+            "(:minAmount IS NULL OR o.totalAmount >= :minAmount) " +
+            "ORDER BY o.id")
+    Stream<Object[]> streamOrdersByFilters(
+            @Param("userId") Long userId,
+            @Param("status") StatusOrder status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("minAmount") Double minAmount
+    );
+
+    // תקצירי הזמנות לרשימות, כולל מספר הפריטים, בשאילתה אחת
+    @Query("SELECT o.id, o.user.id, o.orderDate, o.createdAt, o.statusOrder, o.totalAmount, o.trackingNumber, " +
+            "(SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order = o) " +
+            "FROM Order o ORDER BY o.id")
+    List<Object[]> findAllSummaries();
+
+    // תקצירי הזמנות עם דפדוף
+    @Query(value = "SELECT o.id, o.user.id, o.orderDate, o.createdAt, o.statusOrder, o.totalAmount, o.trackingNumber, " +
+            "(SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order = o) " +
+            "FROM Order o",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Object[]> findSummaries(Pageable pageable);
+}
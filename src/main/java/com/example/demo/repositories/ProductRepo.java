@@ -1,10 +1,14 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,19 +17,48 @@ import java.util.List;
 @Repository
 public interface ProductRepo extends JpaRepository<Product, Long> {
 
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     List<Product> findByCategoryId(Long categoryId);
 
     // תמיכה בחיפוש עם דפדוף
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
+    // מזהי המוצרים בקטגוריה בלבד (לניקוי מטמון דפי המוצר)
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    // מוצרים בקטגוריה ובכל צאצאיה - צירוף אחד לטבלת הסגור, עם דפדוף
+    @Query(value = "SELECT p FROM Product p JOIN CategoryClosure cc ON cc.id.descendantId = p.category.id " +
+            "WHERE cc.id.ancestorId = :categoryId",
+            countQuery = "SELECT COUNT(p) FROM Product p JOIN CategoryClosure cc ON cc.id.descendantId = p.category.id " +
+                    "WHERE cc.id.ancestorId = :categoryId")
+    Page<Product> findInCategorySubtree(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // דפדוף לפי מפתח (keyset) על מוצרים פעילים בקטגוריה ובכל צאצאיה
+    @Query("SELECT p FROM Product p JOIN CategoryClosure cc ON cc.id.descendantId = p.category.id " +
+            "WHERE cc.id.ancestorId = :categoryId AND p.active = true AND p.id > :afterId " +
+            "ORDER BY p.id")
+    Slice<Product> findInCategorySubtreeAfterId(
+            @Param("categoryId") Long categoryId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
     List<Product> findByNameContainingIgnoreCase(String name);
 
     // תמיכה בחיפוש עם דפדוף
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     List<Product> findByBrand(String brand);
 
     // חיפוש לפי מודל
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     List<Product> findByModel(String model);
 
     boolean existsByName(String name);
@@ -37,13 +70,23 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
 
     List<Product> findByQuantityLessThan(int quantity);
 
+    // מוצרים אקטיביים במלאי נמוך - מזהה, שם וכמות בלבד (להתראות בדשבורד)
+    @Query("SELECT p.id, p.name, p.quantity FROM Product p " +
+            "WHERE p.active = true AND p.quantity < :threshold " +
+            "ORDER BY p.quantity ASC, p.id ASC")
+    List<Object[]> findLowStockSummaries(@Param("threshold") int threshold, Pageable pageable);
+
     // מוצרים שאזלו מהמלאי
     List<Product> findByQuantity(int quantity);
 
     // מוצרים אקטיביים בלבד
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     List<Product> findByActiveTrue();
 
     // שאילתה מורכבת - סינון לפי מחיר וקטגוריה
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.category.id = :categoryId")
     List<Product> findByPriceRangeAndCategory(
             @Param("minPrice") double minPrice,
@@ -68,6 +111,46 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
             Pageable pageable
     );
 
+    // דפדוף לפי מפתח (keyset) ממוין לפי מזהה
+    @Query("SELECT p FROM Product p WHERE " +
+            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(:brand IS NULL OR p.brand = :brand) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+            "p.active = true AND p.id > :afterId " +
+            "ORDER BY p.id")
+    Slice<Product> findProductsByFiltersAfterId(
+            @Param("name") String name,
+            @Param("categoryId") Long categoryId,
+            @Param("brand") String brand,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // דפדוף לפי מפתח (keyset) ממוין לפי מחיר ואז מזהה
+    @Query("SELECT p FROM Product p WHERE " +
+            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(:brand IS NULL OR p.brand = :brand) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+            "p.active = true AND " +
+            "(p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+            "ORDER BY p.price, p.id")
+    Slice<Product> findProductsByFiltersAfterPrice(
+            @Param("name") String name,
+            @Param("categoryId") Long categoryId,
+            @Param("brand") String brand,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("afterPrice") double afterPrice,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
     // מציאת מוצרים פופולריים (לפי הכמות בהזמנות)
     @Query(value = "SELECT p.* FROM product p " +
             "JOIN order_items oi ON p.id = oi.product_id " +
@@ -77,6 +160,37 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
     List<Product> findPopularProducts(@Param("limit") int limit);
 
     // מציאת המותגים הייחודיים
+    @QueryHints({@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "product-queries")})
     @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.brand IS NOT NULL")
     List<String> findDistinctBrands();
-}
\ No newline at end of file
+
+    // תקצירי מוצרים לרשימות: שדות, קטגוריה ותמונה ראשית בשאילתה אחת, ללא טעינת ישויות
+    @Query("SELECT p.id, p.name, p.price, p.quantity, p.brand, p.model, p.active, c.id, c.name, " +
+            "(SELECT MIN(i.imageUrl) FROM ProductImage i WHERE i.product = p AND i.isMain = true) " +
+            "FROM Product p LEFT JOIN p.category c ORDER BY p.id")
+    List<Object[]> findAllSummaries();
+
+    // תקצירי מוצרים פעילים עם דפדוף
+    @Query(value = "SELECT p.id, p.name, p.price, p.quantity, p.brand, p.model, p.active, c.id, c.name, " +
+            "(SELECT MIN(i.imageUrl) FROM ProductImage i WHERE i.product = p AND i.isMain = true) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.active = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.active = true")
+    Page<Object[]> findActiveSummaries(Pageable pageable);
+
+    // פרטי מוצר עם קטגוריה ודירוג ממוצע של ביקורות מאושרות
+    @Query("SELECT p.id, p.name, p.description, p.price, p.quantity, p.brand, p.model, p.active, c.id, c.name, " +
+            "p.createdAt, p.updatedAt, " +
+            "(SELECT AVG(r.rating) FROM Review r WHERE r.product = p AND r.approved = true), " +
+            "(SELECT COUNT(r) FROM Review r WHERE r.product = p AND r.approved = true) " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id = :id")
+    List<Object[]> findDetailRows(@Param("id") Long id);
+
+    // תמונות של מוצר (לתצוגת פרטי מוצר)
+    @Query("SELECT i.id, i.imageUrl, i.isMain FROM ProductImage i WHERE i.product.id = :productId ORDER BY i.id")
+    List<Object[]> findImageRows(@Param("productId") Long productId);
+
+    // מפרטים של מוצר (לתצוגת פרטי מוצר)
+    @Query("SELECT s.id, s.specName, s.specValue FROM ProductSpecification s WHERE s.product.id = :productId ORDER BY s.id")
+    List<Object[]> findSpecificationRows(@Param("productId") Long productId);
+}
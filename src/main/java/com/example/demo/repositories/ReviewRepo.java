@@ -3,11 +3,13 @@ package com.example.demo.repositories;
 import com.example.demo.entities.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +37,17 @@ public interface ReviewRepo extends JpaRepository<Review, Long> {
     // ביקורות שאושרו (לתצוגה)
     Page<Review> findByProductIdAndApprovedTrue(Long productId, Pageable pageable);
 
+    // ביקורות שאושרו בדפדוף לפי מפתח (keyset), מהחדשות לישנות
+    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.approved = true AND " +
+            "(r.createdAt < :afterCreatedAt OR (r.createdAt = :afterCreatedAt AND r.id < :afterId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Review> findApprovedByProductIdAfter(
+            @Param("productId") Long productId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
     // ביקורות מאומתות (verified purchase)
     List<Review> findByProductIdAndVerifiedPurchaseTrue(Long productId);
 
@@ -1,5 +1,6 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.CartViewDto;
 import com.example.demo.entities.Cart;
 import com.example.demo.entities.CartItem;
 import com.example.demo.entities.Product;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +38,12 @@ public class CartService {
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private StoreMetrics metrics;
+
     /**
      * Get all carts (admin function)
      */
@@ -71,6 +79,44 @@ public class CartService {
         return cartRepo.findByUserIdAndActiveTrue(userId);
     }
 
+    /**
+     * Get the cart view (cart and lines with product names) by cart ID, in one query
+     */
+    public Optional<CartViewDto> getCartView(Long cartId) {
+        return toCartView(cartRepo.findCartViewRows(cartId));
+    }
+
+    /**
+     * Get the cart view of a user's active cart, in one query
+     */
+    public Optional<CartViewDto> getActiveCartView(Long userId) {
+        return toCartView(cartRepo.findActiveCartViewRows(userId));
+    }
+
+    // Rows are (cart fields..., line fields...), one per line; a cart without lines has one row with null line fields
+    private static Optional<CartViewDto> toCartView(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] first = rows.get(0);
+        List<CartViewDto.Line> lines = new ArrayList<>(rows.size());
+        int totalQuantity = 0;
+        double totalPrice = 0;
+        for (Object[] row : rows) {
+            if (row[4] == null || !row[0].equals(first[0])) {
+                continue;
+            }
+            double unitPrice = (Double) row[7];
+            int quantity = (Integer) row[8];
+            lines.add(new CartViewDto.Line((Long) row[4], (Long) row[5], (String) row[6], unitPrice, quantity,
+                    unitPrice * quantity));
+            totalQuantity += quantity;
+            totalPrice += unitPrice * quantity;
+        }
+        return Optional.of(new CartViewDto((Long) first[0], (Long) first[1], (Boolean) first[2],
+                (LocalDateTime) first[3], lines, totalQuantity, totalPrice));
+    }
+
     /**
      * Create a new cart for user or get existing active cart
      */
@@ -95,7 +141,9 @@ public class CartService {
         }
 
         Cart cart = new Cart(user);
-        return cartRepo.save(cart);
+        Cart saved = cartRepo.save(cart);
+        metrics.cartActivated();
+        return saved;
     }
 
     /**
@@ -121,20 +169,26 @@ public class CartService {
             throw new IllegalStateException("Cannot add inactive product to cart");
         }
 
-        // Validate inventory
-        if (product.getQuantity() < quantity) {
+        // Validate inventory against stock not held by other carts
+        String owner = StockReservationService.cartOwner(cartId);
+        int available = reservationService.availableToPromise(owner, productId, product.getQuantity());
+        int alreadyInCart = reservationService.heldQuantity(owner, productId);
+        if (available - alreadyInCart < quantity) {
             throw new InsufficientInventoryException(
                     "Not enough inventory for product: " + product.getName() +
-                            ". Available: " + product.getQuantity() +
+                            ". Available: " + (available - alreadyInCart) +
                             ", Requested: " + quantity);
         }
 
         // Add product to cart
         CartItem cartItem = cart.addProduct(product, quantity);
 
-        // Update cart
+        // Hold the cart's total quantity of this product until the cart checks out or the hold expires
+        reservationService.hold(owner, productId, cartItem.getQuantity(), product.getQuantity());
+
+        // Update cart. The cart is managed in this transaction, so saving the item is
+        // enough; merging the cart as well would cascade a second copy of a new item.
         cart.setUpdatedAt(LocalDateTime.now());
-        cartRepo.save(cart);
 
         return cartItemRepo.save(cartItem);
     }
@@ -158,11 +212,13 @@ public class CartService {
         Product product = productRepo.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
-        // Validate inventory
-        if (product.getQuantity() < newQuantity) {
+        // Validate inventory against stock not held by other carts
+        String owner = StockReservationService.cartOwner(cartId);
+        int available = reservationService.availableToPromise(owner, productId, product.getQuantity());
+        if (available < newQuantity) {
             throw new InsufficientInventoryException(
                     "Not enough inventory for product: " + product.getName() +
-                            ". Available: " + product.getQuantity() +
+                            ". Available: " + available +
                             ", Requested: " + newQuantity);
         }
 
@@ -172,7 +228,8 @@ public class CartService {
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found in cart"));
 
-        // Update quantity
+        // Update quantity and the matching hold
+        reservationService.hold(owner, productId, newQuantity, product.getQuantity());
         cartItem.setQuantity(newQuantity);
         cartItem.setUpdatedAt(LocalDateTime.now());
 
@@ -207,6 +264,7 @@ public class CartService {
         if (cartItemToRemove != null) {
             cart.getCartItems().remove(cartItemToRemove);
             cartItemRepo.deleteById(cartItemToRemove.getId());
+            reservationService.releaseAfterCommit(StockReservationService.cartOwner(cartId), productId);
 
             // Update cart
             cart.setUpdatedAt(LocalDateTime.now());
@@ -229,6 +287,7 @@ public class CartService {
         // Remove all cart items
         cart.getCartItems().clear();
         cartItemRepo.deleteAll(cart.getCartItems());
+        reservationService.releaseAllAfterCommit(StockReservationService.cartOwner(cartId));
 
         // Update cart
         cart.setUpdatedAt(LocalDateTime.now());
@@ -246,10 +305,20 @@ public class CartService {
         // Get or create user cart
         Cart userCart = getOrCreateActiveCart(userEmail);
 
-        // Merge items from anonymous cart to user cart
+        // Merge items from anonymous cart to user cart, moving the holds along. The anonymous
+        // holds are released at once so the user's holds can take their units; a rollback
+        // restores both sides.
+        String anonymousOwner = StockReservationService.cartOwner(anonymousCartId);
+        String userOwner = StockReservationService.cartOwner(userCart.getId());
+        reservationService.releaseAll(anonymousOwner);
         for (CartItem item : anonymousCart.getCartItems()) {
             Product product = item.getProduct();
-            userCart.addProduct(product, item.getQuantity());
+            CartItem merged = userCart.addProduct(product, item.getQuantity());
+            try {
+                reservationService.hold(userOwner, product.getId(), merged.getQuantity(), product.getQuantity());
+            } catch (InsufficientInventoryException e) {
+                // Keep the item; availability is checked again at checkout
+            }
         }
 
         // Save user cart
@@ -257,7 +326,10 @@ public class CartService {
         cartRepo.save(userCart);
 
         // Deactivate anonymous cart
-        anonymousCart.setActive(false);
+        if (anonymousCart.isActive()) {
+            anonymousCart.setActive(false);
+            metrics.cartDeactivated();
+        }
         cartRepo.save(anonymousCart);
 
         return userCart;
@@ -285,30 +357,45 @@ public class CartService {
             cart.setCreatedAt(LocalDateTime.now());
         }
         cart.setUpdatedAt(LocalDateTime.now());
-        return cartRepo.save(cart);
+        Cart saved = cartRepo.save(cart);
+        if (saved.isActive()) {
+            metrics.cartActivated();
+        }
+        return saved;
     }
 
     /**
      * Update an existing cart
      */
     public Cart update(Long id, Cart updatedCart) {
-        if (!cartRepo.existsById(id)) {
-            throw new ResourceNotFoundException("Cart not found with id: " + id);
-        }
+        boolean wasActive = cartRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + id))
+                .isActive();
 
         updatedCart.setId(id);
         updatedCart.setUpdatedAt(LocalDateTime.now());
-        return cartRepo.save(updatedCart);
+        Cart saved = cartRepo.save(updatedCart);
+        if (saved.isActive() != wasActive) {
+            if (saved.isActive()) {
+                metrics.cartActivated();
+            } else {
+                metrics.cartDeactivated();
+            }
+        }
+        return saved;
     }
 
     /**
      * Delete a cart
      */
     public void delete(Long id) {
-        if (!cartRepo.existsById(id)) {
-            throw new ResourceNotFoundException("Cart not found with id: " + id);
-        }
+        Cart cart = cartRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + id));
 
         cartRepo.deleteById(id);
+        if (cart.isActive()) {
+            metrics.cartDeactivated();
+        }
+        reservationService.releaseAllAfterCommit(StockReservationService.cartOwner(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.CategoryClosureId;
+import com.example.demo.repositories.CategoryClosureRepo;
+import com.example.demo.repositories.CategoryRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Closure table of the category tree.
+ * category_closure holds every (ancestor, descendant, depth) pair, including each category
+ * with itself at depth 0, so "everything under X" is one primary-key range on
+ * ancestor_id that joins straight to products. CategoryService keeps it in step inside
+ * its own transactions; a moved subtree costs two set-based statements however large it
+ * is. Subqueries on the table being changed go through a derived table, as MySQL
+ * requires.
+ */
+@Service
+public class CategoryClosureService {
+    private static final String INSERT_SELF_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)";
+
+    // The parent's ancestors (the parent included) become ancestors of the new category
+    private static final String INSERT_ANCESTORS_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT cc.ancestor_id, c.id, cc.depth + 1 FROM category_closure cc " +
+                    "JOIN categories c ON c.id = ? WHERE cc.descendant_id = ?";
+
+    // Unlink the subtree of a category from everything above that category
+    private static final String DETACH_SQL =
+            "DELETE FROM category_closure " +
+                    "WHERE descendant_id IN (SELECT d FROM (SELECT descendant_id AS d FROM category_closure " +
+                    "WHERE ancestor_id = ?) subtree) " +
+                    "AND ancestor_id IN (SELECT a FROM (SELECT ancestor_id AS a FROM category_closure " +
+                    "WHERE descendant_id = ? AND ancestor_id <> ?) above)";
+
+    // Link every node of the subtree to the new parent and all of its ancestors
+    private static final String ATTACH_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT above.ancestor_id, subtree.descendant_id, above.depth + subtree.depth + 1 " +
+                    "FROM category_closure above CROSS JOIN category_closure subtree " +
+                    "WHERE above.descendant_id = ? AND subtree.ancestor_id = ?";
+
+    // Unlink everything below a category from that category and all above it
+    private static final String DETACH_CHILDREN_SQL =
+            "DELETE FROM category_closure " +
+                    "WHERE descendant_id IN (SELECT d FROM (SELECT descendant_id AS d FROM category_closure " +
+                    "WHERE ancestor_id = ? AND depth > 0) below) " +
+                    "AND ancestor_id IN (SELECT a FROM (SELECT ancestor_id AS a FROM category_closure " +
+                    "WHERE descendant_id = ?) above)";
+
+    private static final String REMOVE_SQL =
+            "DELETE FROM category_closure WHERE ancestor_id = ? OR descendant_id = ?";
+
+    private static final String CLEAR_SQL = "DELETE FROM category_closure";
+
+    private static final String BACKFILL_SELF_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM categories";
+
+    // One level per run; the NOT EXISTS also stops parent cycles in the data from looping
+    private static final String BACKFILL_LEVEL_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT cc.ancestor_id, c.id, cc.depth + 1 FROM categories c " +
+                    "JOIN category_closure cc ON cc.descendant_id = c.parent_id " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM category_closure x " +
+                    "WHERE x.ancestor_id = cc.ancestor_id AND x.descendant_id = c.id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private CategoryClosureRepo categoryClosureRepo;
+
+    /**
+     * Link a new category under its parent (or as a top-level category when parentId is null)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insert(Long categoryId, Long parentId) {
+        jdbcTemplate.update(INSERT_SELF_SQL, categoryId, categoryId);
+        if (parentId != null) {
+            jdbcTemplate.update(INSERT_ANCESTORS_SQL, categoryId, parentId);
+        }
+    }
+
+    /**
+     * Move a category with its whole subtree under a new parent (null for top level)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void move(Long categoryId, Long newParentId) {
+        jdbcTemplate.update(DETACH_SQL, categoryId, categoryId, categoryId);
+        if (newParentId != null) {
+            jdbcTemplate.update(ATTACH_SQL, newParentId, categoryId);
+        }
+    }
+
+    /**
+     * Move all children of a category, with their subtrees, under a new parent in two
+     * statements. childIds must be read before the parent links change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveChildren(Long parentId, List<Long> childIds, Long newParentId) {
+        if (childIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(DETACH_CHILDREN_SQL, parentId, parentId);
+        String placeholders = String.join(", ", Collections.nCopies(childIds.size(), "?"));
+        List<Object> args = new ArrayList<>(childIds.size() + 1);
+        args.add(newParentId);
+        args.addAll(childIds);
+        jdbcTemplate.update(ATTACH_SQL.replace("subtree.ancestor_id = ?", "subtree.ancestor_id IN (" + placeholders + ")"),
+                args.toArray());
+    }
+
+    /**
+     * Whether the category is the ancestor itself or lies anywhere below it, as of this transaction
+     */
+    public boolean isInSubtree(Long categoryId, Long ancestorId) {
+        return categoryClosureRepo.existsById(new CategoryClosureId(ancestorId, categoryId));
+    }
+
+    /**
+     * Drop every pair a deleted category takes part in
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long categoryId) {
+        jdbcTemplate.update(REMOVE_SQL, categoryId, categoryId);
+    }
+
+    /**
+     * Rebuild the whole table from the parent links in the categories table
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(CLEAR_SQL);
+            jdbcTemplate.update(BACKFILL_SELF_SQL);
+            while (jdbcTemplate.update(BACKFILL_LEVEL_SQL) > 0) {
+                // next level down
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfOutOfStep() {
+        if (categoryClosureRepo.countSelfLinks() != categoryRepo.count()) {
+            rebuild();
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.CategoryNodeDto;
+import com.example.demo.dto.CategoryTreeDto;
 import com.example.demo.entities.Category;
+import com.example.demo.events.CategoryChangedEvent;
 import com.example.demo.exceptions.ResourceNotFoundException;
 import com.example.demo.repositories.CategoryRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -16,6 +21,15 @@ public class CategoryService {
     @Autowired
     private CategoryRepo categoryRepo;
 
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private CategoryClosureService closureService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all categories
      */
@@ -72,6 +86,42 @@ public class CategoryService {
         return categoryRepo.findCategoriesWithActiveProducts();
     }
 
+    /**
+     * Get the whole category tree
+     */
+    public CategoryTreeDto getTree() {
+        return categoryTree.current().toDto();
+    }
+
+    /**
+     * Get the breadcrumb from the top-level category down to this one
+     */
+    public List<CategoryNodeDto> getPath(Long id) {
+        return requireInTree(id).path(id);
+    }
+
+    /**
+     * Get the direct subcategories from the category tree
+     */
+    public List<CategoryNodeDto> getChildren(Long id) {
+        return requireInTree(id).children(id);
+    }
+
+    /**
+     * Get the category and all its descendants, in tree order
+     */
+    public List<CategoryNodeDto> getSubtree(Long id) {
+        return requireInTree(id).subtree(id);
+    }
+
+    private CategoryTree.Snapshot requireInTree(Long id) {
+        CategoryTree.Snapshot tree = categoryTree.current();
+        if (!tree.contains(id)) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return tree;
+    }
+
     /**
      * Add a new category
      */
@@ -98,7 +148,10 @@ public class CategoryService {
             category.setParent(parent);
         }
 
-        return categoryRepo.save(category);
+        Category saved = categoryRepo.save(category);
+        closureService.insert(saved.getId(), saved.getParent() == null ? null : saved.getParent().getId());
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
     }
 
     /**
@@ -108,6 +161,7 @@ public class CategoryService {
     public Category update(Long id, Category updatedCategory) {
         Category existingCategory = categoryRepo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        Long oldParentId = existingCategory.getParent() == null ? null : existingCategory.getParent().getId();
 
         // Update properties
         existingCategory.setName(updatedCategory.getName());
@@ -122,6 +176,9 @@ public class CategoryService {
             if (updatedCategory.getParent().getId().equals(id)) {
                 throw new IllegalArgumentException("Category cannot be its own parent");
             }
+            if (closureService.isInSubtree(updatedCategory.getParent().getId(), id)) {
+                throw new IllegalArgumentException("Category cannot be moved under one of its subcategories");
+            }
 
             Category parent = categoryRepo.findById(updatedCategory.getParent().getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Parent category not found"));
@@ -131,7 +188,13 @@ public class CategoryService {
             existingCategory.setParent(null);
         }
 
-        return categoryRepo.save(existingCategory);
+        Category saved = categoryRepo.save(existingCategory);
+        Long newParentId = saved.getParent() == null ? null : saved.getParent().getId();
+        if (!Objects.equals(oldParentId, newParentId)) {
+            closureService.move(id, newParentId);
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return saved;
     }
 
     /**
@@ -140,7 +203,9 @@ public class CategoryService {
      */
     @Transactional
     public void delete(Long id) {
+        closureService.remove(id);
         categoryRepo.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 
     /**
@@ -154,7 +219,9 @@ public class CategoryService {
         category.setActive(false);
         category.setUpdatedAt(LocalDateTime.now());
 
-        return categoryRepo.save(category);
+        Category saved = categoryRepo.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return saved;
     }
 
     /**
@@ -168,7 +235,9 @@ public class CategoryService {
         category.setActive(true);
         category.setUpdatedAt(LocalDateTime.now());
 
-        return categoryRepo.save(category);
+        Category saved = categoryRepo.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+        return saved;
     }
 
     /**
@@ -185,6 +254,12 @@ public class CategoryService {
         Category targetParent = categoryRepo.findById(targetParentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Target category not found"));
 
+        // Moving the children under one of their own descendants would create a cycle
+        if (!sourceParentId.equals(targetParentId)
+                && closureService.isInSubtree(targetParentId, sourceParentId)) {
+            throw new IllegalArgumentException("Target category is a subcategory of the source category");
+        }
+
         // Get all subcategories of source parent
         List<Category> subcategories = categoryRepo.findByParentId(sourceParentId);
 
@@ -194,5 +269,10 @@ public class CategoryService {
             subcategory.setUpdatedAt(LocalDateTime.now());
             categoryRepo.save(subcategory);
         }
+        if (!sourceParentId.equals(targetParentId)) {
+            closureService.moveChildren(sourceParentId,
+                    subcategories.stream().map(Category::getId).toList(), targetParentId);
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(sourceParentId));
     }
 }
\ No newline at end of file
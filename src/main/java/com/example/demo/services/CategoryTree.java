@@ -0,0 +1,297 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.CategoryNodeDto;
+import com.example.demo.dto.CategoryTreeDto;
+import com.example.demo.events.CategoryChangedEvent;
+import com.example.demo.repositories.CategoryRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * The category hierarchy held in memory as an immutable snapshot.
+ * Categories are numbered in pre-order (Euler tour), so the subtree of a category is the
+ * contiguous range [position, end) and "is X under Y" is two integer comparisons. Every
+ * committed change in CategoryService builds a new snapshot from one query and swaps it
+ * in; readers never lock and always see one consistent tree.
+ */
+@Component
+public class CategoryTree {
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * The current tree. Callers that ask several questions should hold on to one snapshot
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = build(categoryRepo.findTreeRows());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Rebuild from the database and publish the new snapshot
+     */
+    public synchronized void rebuild() {
+        snapshot = build(categoryRepo.findTreeRows());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    // Rows are (id, name, active, parent id) ordered by id
+    static Snapshot build(List<Object[]> rows) {
+        int size = rows.size();
+        Map<Long, Integer> rowById = new HashMap<>(size * 2);
+        for (int row = 0; row < size; row++) {
+            rowById.put((Long) rows.get(row)[0], row);
+        }
+
+        // Children per row in id order; a row whose parent is missing is a root
+        List<List<Integer>> childRows = new ArrayList<>(size);
+        List<Integer> rootRows = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            childRows.add(new ArrayList<>());
+        }
+        for (int row = 0; row < size; row++) {
+            Integer parentRow = rowById.get((Long) rows.get(row)[3]);
+            if (parentRow == null) {
+                rootRows.add(row);
+            } else {
+                childRows.get(parentRow).add(row);
+            }
+        }
+
+        Snapshot tree = new Snapshot(size);
+        boolean[] visited = new boolean[size];
+        for (int root : rootRows) {
+            tree.walk(root, rows, childRows, visited);
+        }
+        // Whatever is left sits on a parent cycle; break each cycle at its lowest id
+        for (int row = 0; row < size; row++) {
+            if (!visited[row]) {
+                tree.walk(row, rows, childRows, visited);
+            }
+        }
+        tree.linkChildren();
+        return tree;
+    }
+
+    /**
+     * One immutable version of the tree. Ids that are not in the snapshot yield empty results
+     */
+    public static final class Snapshot {
+        private final long[] ids;
+        private final String[] names;
+        private final boolean[] active;
+        private final int[] parent;
+        private final int[] depth;
+        // Exclusive end of the subtree that starts at each position
+        private final int[] end;
+        private final Map<Long, Integer> positionById;
+        private int[][] children;
+        private int[] roots;
+        private int next;
+
+        private Snapshot(int size) {
+            ids = new long[size];
+            names = new String[size];
+            active = new boolean[size];
+            parent = new int[size];
+            depth = new int[size];
+            end = new int[size];
+            positionById = new HashMap<>(size * 2);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public boolean contains(Long id) {
+            return positionById.containsKey(id);
+        }
+
+        /**
+         * Whether the category is the ancestor itself or lies anywhere below it
+         */
+        public boolean isInSubtree(Long id, Long ancestorId) {
+            Integer position = positionById.get(id);
+            Integer ancestor = positionById.get(ancestorId);
+            return position != null && ancestor != null && position >= ancestor && position < end[ancestor];
+        }
+
+        /**
+         * Ids of the category and all its descendants, in pre-order
+         */
+        public List<Long> subtreeIds(Long id) {
+            Integer position = positionById.get(id);
+            if (position == null) {
+                return List.of();
+            }
+            List<Long> result = new ArrayList<>(end[position] - position);
+            for (int p = position; p < end[position]; p++) {
+                result.add(ids[p]);
+            }
+            return result;
+        }
+
+        /**
+         * The category and all its descendants in pre-order; depth tells the nesting
+         */
+        public List<CategoryNodeDto> subtree(Long id) {
+            Integer position = positionById.get(id);
+            if (position == null) {
+                return List.of();
+            }
+            List<CategoryNodeDto> result = new ArrayList<>(end[position] - position);
+            for (int p = position; p < end[position]; p++) {
+                result.add(node(p));
+            }
+            return result;
+        }
+
+        /**
+         * Breadcrumb from the top-level category down to the category itself
+         */
+        public List<CategoryNodeDto> path(Long id) {
+            Integer position = positionById.get(id);
+            if (position == null) {
+                return List.of();
+            }
+            CategoryNodeDto[] path = new CategoryNodeDto[depth[position] + 1];
+            for (int p = position; p >= 0; p = parent[p]) {
+                path[depth[p]] = node(p);
+            }
+            return Arrays.asList(path);
+        }
+
+        /**
+         * Direct subcategories
+         */
+        public List<CategoryNodeDto> children(Long id) {
+            Integer position = positionById.get(id);
+            return position == null ? List.of() : nodes(children[position]);
+        }
+
+        /**
+         * Top-level categories
+         */
+        public List<CategoryNodeDto> roots() {
+            return nodes(roots);
+        }
+
+        /**
+         * The whole tree as nested nodes
+         */
+        public CategoryTreeDto toDto() {
+            List<CategoryTreeDto.Node> result = new ArrayList<>(roots.length);
+            for (int root : roots) {
+                result.add(treeNode(root));
+            }
+            return new CategoryTreeDto(result);
+        }
+
+        private CategoryTreeDto.Node treeNode(int position) {
+            List<CategoryTreeDto.Node> nested = new ArrayList<>(children[position].length);
+            for (int child : children[position]) {
+                nested.add(treeNode(child));
+            }
+            return new CategoryTreeDto.Node(ids[position], names[position], active[position], nested);
+        }
+
+        private List<CategoryNodeDto> nodes(int[] positions) {
+            List<CategoryNodeDto> result = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                result.add(node(position));
+            }
+            return result;
+        }
+
+        private CategoryNodeDto node(int position) {
+            int parentPosition = parent[position];
+            return new CategoryNodeDto(ids[position], names[position], active[position],
+                    parentPosition < 0 ? null : ids[parentPosition], depth[position]);
+        }
+
+        // Iterative pre-order walk from one root, numbering every unvisited row it reaches
+        private void walk(int rootRow, List<Object[]> rows, List<List<Integer>> childRows, boolean[] visited) {
+            Deque<int[]> stack = new ArrayDeque<>();
+            visited[rootRow] = true;
+            stack.push(new int[]{rootRow, enter(rootRow, rows, -1), 0});
+            while (!stack.isEmpty()) {
+                int[] top = stack.peek();
+                List<Integer> kids = childRows.get(top[0]);
+                if (top[2] < kids.size()) {
+                    int childRow = kids.get(top[2]++);
+                    if (!visited[childRow]) {
+                        visited[childRow] = true;
+                        stack.push(new int[]{childRow, enter(childRow, rows, top[1]), 0});
+                    }
+                } else {
+                    end[top[1]] = next;
+                    stack.pop();
+                }
+            }
+        }
+
+        private int enter(int row, List<Object[]> rows, int parentPosition) {
+            Object[] values = rows.get(row);
+            int position = next++;
+            ids[position] = (Long) values[0];
+            names[position] = (String) values[1];
+            active[position] = (Boolean) values[2];
+            parent[position] = parentPosition;
+            depth[position] = parentPosition < 0 ? 0 : depth[parentPosition] + 1;
+            positionById.put(ids[position], position);
+            return position;
+        }
+
+        // Child and root lists from the parent links; positions ascend, so siblings keep id order
+        private void linkChildren() {
+            int[] counts = new int[ids.length];
+            int rootCount = 0;
+            for (int p = 0; p < ids.length; p++) {
+                if (parent[p] < 0) {
+                    rootCount++;
+                } else {
+                    counts[parent[p]]++;
+                }
+            }
+            children = new int[ids.length][];
+            for (int p = 0; p < ids.length; p++) {
+                children[p] = new int[counts[p]];
+                counts[p] = 0;
+            }
+            roots = new int[rootCount];
+            rootCount = 0;
+            for (int p = 0; p < ids.length; p++) {
+                if (parent[p] < 0) {
+                    roots[rootCount++] = p;
+                } else {
+                    children[parent[p]][counts[parent[p]]++] = p;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.DailyRevenueDto;
+import com.example.demo.entities.DailyRevenue;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.events.OrderRevenueChangedEvent;
+import com.example.demo.repositories.DailyRevenueRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily revenue rollup.
+ * The daily_revenue table holds one row per (order date, status) with the order count
+ * and gross amount. It is kept up to date incrementally after each order change
+ * commits and rebuilt from the orders table by a backfill job, so revenue reports read
+ * O(days) rollup rows instead of grouping over every order.
+ */
+@Service
+public class DailyRevenueService {
+    private static final String INCREMENT_SQL =
+            "UPDATE daily_revenue SET order_count = order_count + ?, gross_amount = gross_amount + ? " +
+                    "WHERE order_date = ? AND status = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO daily_revenue (order_date, status, order_count, gross_amount) VALUES (?, ?, ?, ?)";
+
+    private static final String CLEAR_SQL = "DELETE FROM daily_revenue";
+
+    private static final String BACKFILL_SQL =
+            "INSERT INTO daily_revenue (order_date, status, order_count, gross_amount) " +
+                    "SELECT order_date, status_order, COUNT(*), SUM(total_amount) FROM orders " +
+                    "WHERE order_date IS NOT NULL AND status_order IS NOT NULL " +
+                    "GROUP BY order_date, status_order";
+
+    // Fixed row order for the increment batch avoids deadlocks between concurrent commits
+    private static final Comparator<RollupKey> KEY_ORDER =
+            Comparator.comparing(RollupKey::orderDate).thenComparing(RollupKey::status);
+
+    @Autowired
+    private DailyRevenueRepo dailyRevenueRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Revenue per order date (date, gross amount), read from the rollup
+     */
+    public List<Object[]> getRevenueByDateRange(LocalDate startDate, LocalDate endDate) {
+        return dailyRevenueRepo.sumGrossAmountByDate(startDate, endDate);
+    }
+
+    /**
+     * Revenue per order date with order counts and the split by status
+     */
+    public List<DailyRevenueDto> getDailyRevenue(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, DailyRevenueDto> days = new LinkedHashMap<>();
+        for (DailyRevenue row : dailyRevenueRepo.findByDateRange(startDate, endDate)) {
+            if (row.getOrderCount() == 0) {
+                continue;
+            }
+            DailyRevenueDto day = days.computeIfAbsent(row.getId().getOrderDate(),
+                    date -> new DailyRevenueDto(date, 0, 0, new EnumMap<>(StatusOrder.class)));
+            day.setOrderCount(day.getOrderCount() + row.getOrderCount());
+            day.setGrossAmount(day.getGrossAmount() + row.getGrossAmount());
+            day.getByStatus().put(row.getId().getStatus(),
+                    new DailyRevenueDto.StatusTotals(row.getOrderCount(), row.getGrossAmount()));
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    /**
+     * Apply committed order changes to the rollup in a short transaction of its own
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderRevenueChanged(OrderRevenueChangedEvent event) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (OrderRevenueChangedEvent.Change change : event.getChanges()) {
+            if (change.getOrderDate() == null) {
+                continue;
+            }
+            if (change.getFrom() != null) {
+                deltas.computeIfAbsent(new RollupKey(change.getOrderDate(), change.getFrom()), key -> new Delta())
+                        .add(-1, -change.getAmount());
+            }
+            if (change.getTo() != null) {
+                deltas.computeIfAbsent(new RollupKey(change.getOrderDate(), change.getTo()), key -> new Delta())
+                        .add(1, change.getAmount());
+            }
+        }
+        deltas.values().removeIf(Delta::isZero);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<RollupKey, Delta>> rows = new ArrayList<>(deltas.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getValue().count);
+            ps.setDouble(2, row.getValue().amount);
+            ps.setDate(3, Date.valueOf(row.getKey().orderDate()));
+            ps.setString(4, row.getKey().status().name());
+        });
+
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int updated : batch) {
+                Map.Entry<RollupKey, Delta> row = rows.get(index++);
+                if (updated == 0) {
+                    insertRow(row.getKey(), row.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the whole rollup from the orders table
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(CLEAR_SQL);
+            jdbcTemplate.update(BACKFILL_SQL);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dailyRevenueRepo.count() == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Nightly backfill; corrects any drift from changes made outside the services
+     */
+    @Scheduled(cron = "${store.rollup.daily-revenue.backfill-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    private void insertRow(RollupKey key, Delta delta) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, Date.valueOf(key.orderDate()), key.status().name(), delta.count, delta.amount);
+        } catch (DuplicateKeyException e) {
+            // A concurrent commit created the row first
+            jdbcTemplate.update(INCREMENT_SQL, delta.count, delta.amount, Date.valueOf(key.orderDate()), key.status().name());
+        }
+    }
+
+    private record RollupKey(LocalDate orderDate, StatusOrder status) {
+    }
+
+    private static final class Delta {
+        long count;
+        double amount;
+
+        void add(long count, double amount) {
+            this.count += count;
+            this.amount += amount;
+        }
+
+        boolean isZero() {
+            return count == 0 && amount == 0;
+        }
+    }
+}
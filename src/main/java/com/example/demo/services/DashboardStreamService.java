@@ -0,0 +1,163 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.DashboardDeltaDto;
+import com.example.demo.dto.DashboardSnapshotDto;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.repositories.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Live admin dashboard over Server-Sent Events.
+ * One scheduled tick computes a single snapshot per interval, diffs it against the
+ * previous one and pushes the delta to every connected admin, so the cost does not grow
+ * with the number of open tabs. Streams are async servlet responses (SseEmitter), so an
+ * idle stream holds no request thread.
+ */
+@Service
+public class DashboardStreamService {
+    @Autowired
+    private StoreMetrics metrics;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Value("${store.dashboard.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    @Value("${store.dashboard.low-stock-limit:100}")
+    private int lowStockLimit;
+
+    @Value("${store.dashboard.stream-timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile DashboardSnapshotDto lastSnapshot;
+
+    /**
+     * Open a stream; the first event is the full current snapshot, later events are deltas
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+
+        DashboardSnapshotDto snapshot = lastSnapshot;
+        if (snapshot == null) {
+            snapshot = takeSnapshot();
+            lastSnapshot = snapshot;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(snapshot));
+            emitters.add(emitter);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Number of connected dashboard streams
+     */
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    /**
+     * Compute one snapshot and push its delta to all streams; idle when nobody is connected
+     */
+    @Scheduled(fixedRateString = "${store.dashboard.stream-interval-ms:2000}")
+    public void publish() {
+        if (emitters.isEmpty()) {
+            lastSnapshot = null;
+            return;
+        }
+        DashboardSnapshotDto previous = lastSnapshot;
+        DashboardSnapshotDto current = takeSnapshot();
+        lastSnapshot = current;
+        if (previous == null) {
+            broadcast(() -> SseEmitter.event().name("snapshot").data(current));
+            return;
+        }
+
+        DashboardDeltaDto delta = diff(previous, current);
+        if (isEmpty(delta)) {
+            // Keeps proxies from closing the connection and detects clients that went away
+            broadcast(() -> SseEmitter.event().comment("keep-alive"));
+        } else {
+            broadcast(() -> SseEmitter.event().name("delta").data(delta));
+        }
+    }
+
+    private DashboardSnapshotDto takeSnapshot() {
+        List<DashboardSnapshotDto.LowStockItem> lowStock = new ArrayList<>();
+        for (Object[] row : productRepo.findLowStockSummaries(lowStockThreshold, PageRequest.of(0, lowStockLimit))) {
+            lowStock.add(new DashboardSnapshotDto.LowStockItem((Long) row[0], (String) row[1], (Integer) row[2]));
+        }
+        return new DashboardSnapshotDto(metrics.orderCountsByStatus(), metrics.totalRevenue(),
+                metrics.productCount(), metrics.activeCartCount(), lowStock, LocalDateTime.now());
+    }
+
+    private static DashboardDeltaDto diff(DashboardSnapshotDto previous, DashboardSnapshotDto current) {
+        Map<StatusOrder, Long> changedCounts = new EnumMap<>(StatusOrder.class);
+        current.getOrdersByStatus().forEach((status, count) -> {
+            if (!Objects.equals(previous.getOrdersByStatus().get(status), count)) {
+                changedCounts.put(status, count);
+            }
+        });
+
+        Map<Long, DashboardSnapshotDto.LowStockItem> previousLow = new HashMap<>();
+        previous.getLowStock().forEach(item -> previousLow.put(item.getProductId(), item));
+        List<DashboardSnapshotDto.LowStockItem> alerts = new ArrayList<>();
+        for (DashboardSnapshotDto.LowStockItem item : current.getLowStock()) {
+            DashboardSnapshotDto.LowStockItem before = previousLow.remove(item.getProductId());
+            if (before == null || before.getQuantity() != item.getQuantity()) {
+                alerts.add(item);
+            }
+        }
+        List<Long> cleared = new ArrayList<>(previousLow.keySet());
+
+        return new DashboardDeltaDto(
+                changedCounts,
+                previous.getTotalRevenue() == current.getTotalRevenue() ? null : current.getTotalRevenue(),
+                previous.getTotalProducts() == current.getTotalProducts() ? null : current.getTotalProducts(),
+                previous.getActiveCarts() == current.getActiveCarts() ? null : current.getActiveCarts(),
+                alerts,
+                cleared,
+                current.getTakenAt());
+    }
+
+    private static boolean isEmpty(DashboardDeltaDto delta) {
+        return delta.getOrdersByStatus().isEmpty() && delta.getTotalRevenue() == null
+                && delta.getTotalProducts() == null && delta.getActiveCarts() == null
+                && delta.getLowStockAlerts().isEmpty() && delta.getLowStockCleared().isEmpty();
+    }
+
+    // An event builder can only be sent once, so each stream gets its own
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event.get());
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
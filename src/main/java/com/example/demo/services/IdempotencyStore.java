@@ -0,0 +1,209 @@
+package com.example.demo.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an Idempotency-Key header.
+ * The first request with a key runs the action and its response is serialized once into
+ * status, headers and body bytes, so no entity graphs are kept alive. Retries with the
+ * same key get those bytes back, and a retry that arrives while the first one is still
+ * running waits for it instead of running the action again. Entries expire after the TTL
+ * and the oldest completed ones are dropped once the store is full. Server errors and
+ * exceptions are not stored, so those requests can be retried for real.
+ */
+@Component
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Duration waitTimeout;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order, for size-bounded eviction and expiry
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public IdempotencyStore(@Value("${store.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${store.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${store.idempotency.wait-timeout:PT30S}") Duration waitTimeout) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Run the action once per (scope, key) and replay its response for later duplicates.
+     * Without a key the action simply runs.
+     *
+     * @param scope identifies the target resource, e.g. "checkout:42", so a key reused
+     *              against a different resource is not mistaken for a retry
+     */
+    public ResponseEntity<?> execute(String scope, String key, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = scope + "|" + key;
+        long now = System.currentTimeMillis();
+        Entry fresh = new Entry(id, now + ttl.toMillis());
+        Entry entry = entries.compute(id, (k, existing) ->
+                existing == null || existing.isExpired(now) ? fresh : existing);
+
+        if (entry != fresh) {
+            return replay(entry);
+        }
+
+        order.add(fresh);
+        evictOverflow();
+        StoredResponse stored;
+        try {
+            stored = store(action.get());
+        } catch (RuntimeException e) {
+            entries.remove(id, fresh);
+            fresh.response.completeExceptionally(e);
+            throw e;
+        }
+        if (stored.status().is5xxServerError()) {
+            entries.remove(id, fresh);
+        }
+        fresh.response.complete(stored);
+        // The first caller gets the same bytes as every replay
+        return stored.toResponse(false);
+    }
+
+    /**
+     * Number of stored keys, including in-flight requests
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop expired entries. Completed entries expire in insertion order, so the scan stops
+     * at the first completed, unexpired entry; in-flight entries are stepped over and
+     * entries no longer in the map (failed requests) are dropped from the queue.
+     */
+    @Scheduled(fixedDelayString = "${store.idempotency.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> iterator = order.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entries.get(entry.id) != entry) {
+                iterator.remove();
+            } else if (entry.isExpired(now)) {
+                iterator.remove();
+                entries.remove(entry.id, entry);
+            } else if (entry.response.isDone()) {
+                return;
+            }
+        }
+    }
+
+    private StoredResponse store(ResponseEntity<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        Object body = response.getBody();
+        byte[] bytes;
+        if (body == null) {
+            bytes = new byte[0];
+        } else if (body instanceof String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (headers.getContentType() == null) {
+                headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+            }
+        } else {
+            try {
+                bytes = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize the response for an idempotent request", e);
+            }
+            if (headers.getContentType() == null) {
+                headers.setContentType(MediaType.APPLICATION_JSON);
+            }
+        }
+        return new StoredResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), bytes);
+    }
+
+    private ResponseEntity<?> replay(Entry entry) {
+        StoredResponse original;
+        try {
+            original = entry.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate request", e);
+        }
+        return original.toResponse(true);
+    }
+
+    // Drops the oldest completed entries; in-flight ones stay so their duplicates still wait
+    private void evictOverflow() {
+        Iterator<Entry> iterator = order.iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            Entry oldest = iterator.next();
+            if (entries.get(oldest.id) != oldest) {
+                iterator.remove();
+            } else if (oldest.response.isDone()) {
+                iterator.remove();
+                entries.remove(oldest.id, oldest);
+            }
+        }
+    }
+
+    private record StoredResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        ResponseEntity<byte[]> toResponse(boolean replayed) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status).headers(headers);
+            if (replayed) {
+                builder.header(REPLAYED_HEADER, "true");
+            }
+            return builder.body(body);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final long expiresAt;
+        final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        Entry(String id, long expiresAt) {
+            this.id = id;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return response.isDone() && now >= expiresAt;
+        }
+    }
+}
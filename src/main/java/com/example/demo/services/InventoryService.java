@@ -0,0 +1,137 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Product;
+import com.example.demo.events.ProductDetailsChangedEvent;
+import com.example.demo.exceptions.InsufficientInventoryException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock mutations for the checkout path.
+ * Each SKU is changed with a single conditional UPDATE so the check and the decrement
+ * happen atomically in the database; there is no read-modify-write window and no row
+ * lock held across the rest of the checkout. All line items of an order go to the
+ * database as one JDBC batch. The updates bypass Hibernate, so the changed products are
+ * soft-locked in the second-level cache the way Hibernate locks its own updates.
+ */
+@Service
+public class InventoryService {
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET quantity = quantity - ?, updated_at = ? WHERE id = ? AND quantity >= ?";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE product SET quantity = quantity + ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Decrement stock for every product in the map (product id -> quantity).
+     * Must run inside the caller's transaction: if any SKU does not have enough stock an
+     * InsufficientInventoryException is thrown and the whole batch is rolled back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        // Fixed lock order across concurrent checkouts avoids deadlocks
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        lockCachedProducts(quantities.keySet());
+
+        int[][] results = jdbcTemplate.batchUpdate(DECREMENT_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, item.getKey());
+            ps.setInt(4, item.getValue());
+        });
+
+        int index = 0;
+        for (int[] batch : results) {
+            for (int updated : batch) {
+                if (updated == 0) {
+                    Long productId = items.get(index).getKey();
+                    throw new InsufficientInventoryException(
+                            "Not enough inventory for product id: " + productId +
+                                    ". Requested: " + items.get(index).getValue());
+                }
+                index++;
+            }
+        }
+        eventPublisher.publishEvent(new ProductDetailsChangedEvent(quantities.keySet()));
+    }
+
+    /**
+     * Return stock for every product in the map (product id -> quantity), e.g. on cancellation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        lockCachedProducts(quantities.keySet());
+
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, item.getKey());
+        });
+        eventPublisher.publishEvent(new ProductDetailsChangedEvent(quantities.keySet()));
+    }
+
+    /**
+     * Soft-lock the products in the second-level cache until the transaction completes.
+     * While locked, readers go to the database and cannot cache what they read; after the
+     * unlock, only sessions that started later may cache the row again. Plain eviction is
+     * not enough: a concurrent load may read the old row and put it back after the evict.
+     */
+    private void lockCachedProducts(Collection<Long> productIds) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Product.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        if (cache == null) {
+            return;
+        }
+        Map<Object, SoftLock> locks = new HashMap<>();
+        for (Long id : productIds) {
+            Object key = cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+            locks.put(key, cache.lockItem(session, key, null));
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locks.forEach((key, lock) -> cache.unlockItem(session, key, lock));
+            }
+        });
+    }
+}
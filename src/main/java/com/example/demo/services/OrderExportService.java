@@ -0,0 +1,153 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.repositories.OrderRepo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streaming export of orders as CSV or NDJSON.
+ * Rows come from a forward-only cursor over flat order columns (no entities, so nothing
+ * accumulates in the persistence context) and are written straight to the response,
+ * flushing every few hundred rows. Memory use does not depend on the number of orders.
+ */
+@Service
+public class OrderExportService {
+    private static final String[] COLUMNS = {
+            "id", "userId", "orderDate", "createdAt", "updatedAt", "status", "totalAmount",
+            "shippingAddress", "shippingCity", "shippingZipCode", "shippingCountry", "trackingNumber"
+    };
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${store.export.flush-rows:500}")
+    private int flushRows;
+
+    /**
+     * Write all orders matching the filters (same as /orders/filter) to the stream, in id order
+     *
+     * @return number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, Long userId, StatusOrder status, LocalDate startDate, LocalDate endDate,
+                       Double minAmount, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = orderRepo.streamOrdersByFilters(userId, status, startDate, endDate, minAmount)) {
+            return format == Format.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+        }
+    }
+
+    private long writeCsv(Iterator<Object[]> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, row[i]);
+            }
+            writer.write("\r\n");
+            if (++count % flushRows == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // RFC 4180 quoting: only fields containing a delimiter, quote or line break are quoted
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(Iterator<Object[]> rows, OutputStream out) throws IOException {
+        JsonFactory factory = objectMapper.getFactory();
+        long count = 0;
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            // The response stream belongs to the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                generator.writeStartObject();
+                for (int i = 0; i < row.length; i++) {
+                    generator.writeFieldName(COLUMNS[i]);
+                    writeJsonValue(generator, row[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++count % flushRows == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        return count;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else {
+            // Dates, timestamps and enums use their ISO / name form, as in the CSV
+            generator.writeString(value.toString());
+        }
+    }
+}
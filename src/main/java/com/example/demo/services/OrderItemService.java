@@ -1,5 +1,6 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.ProductSalesDto;
 import com.example.demo.entities.Order;
 import com.example.demo.entities.OrderItem;
 import com.example.demo.entities.Product;
@@ -12,7 +13,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -30,6 +36,9 @@ public class OrderItemService {
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private SalesColumnStore salesStore;
+
     /**
      * Get all order items (admin function)
      */
@@ -59,10 +68,25 @@ public class OrderItemService {
     }
 
     /**
-     * Get top selling products based on order items
+     * Get top selling products based on order items (product id, name, units sold)
      */
     public List<Object[]> getTopSellingProducts(int limit) {
-        return orderItemRepo.findTopSellingProducts(limit);
+        if (!salesStore.isLoaded()) {
+            return orderItemRepo.findTopSellingProducts(limit);
+        }
+        List<ProductSalesDto> top = salesStore.topSelling(limit);
+        Map<Long, String> names = new HashMap<>();
+        productRepo.findAllById(top.stream().map(ProductSalesDto::getProductId).toList())
+                .forEach(product -> names.put(product.getId(), product.getName()));
+
+        List<Object[]> result = new ArrayList<>(top.size());
+        for (ProductSalesDto sales : top) {
+            String name = names.get(sales.getProductId());
+            if (name != null) {
+                result.add(new Object[]{sales.getProductId(), name, sales.getQuantity()});
+            }
+        }
+        return result;
     }
 
     /**
@@ -102,6 +126,7 @@ public class OrderItemService {
         }
 
         OrderItem savedItem = orderItemRepo.save(item);
+        salesStore.recordLine(product.getId(), savedItem.getQuantity(), savedItem.getUnitPrice(), order.getOrderDate());
 
         // Recalculate order total
         order.calculateTotalAmount();
@@ -130,6 +155,8 @@ public class OrderItemService {
             throw new IllegalArgumentException("Quantity must be greater than zero");
         }
 
+        retractLine(existingItem);
+
         // Update fields
         existingItem.setQuantity(updatedItem.getQuantity());
 
@@ -138,6 +165,7 @@ public class OrderItemService {
         }
 
         OrderItem savedItem = orderItemRepo.save(existingItem);
+        recordLine(savedItem);
 
         // Recalculate order total
         order.calculateTotalAmount();
@@ -166,8 +194,10 @@ public class OrderItemService {
         }
 
         // Update quantity
+        retractLine(existingItem);
         existingItem.setQuantity(newQuantity);
         OrderItem savedItem = orderItemRepo.save(existingItem);
+        recordLine(savedItem);
 
         // Recalculate order total
         order.calculateTotalAmount();
@@ -191,6 +221,7 @@ public class OrderItemService {
             throw new InvalidOrderStateException("Cannot delete items from orders not in PENDING state");
         }
 
+        retractLine(item);
         orderItemRepo.deleteById(id);
 
         // Recalculate order total
@@ -199,10 +230,35 @@ public class OrderItemService {
     }
 
     /**
-     * Get total sales by product
+     * Get total sales by product (product id, units sold)
      */
     public List<Object[]> getTotalSalesByProduct() {
-        return orderItemRepo.calculateTotalSalesByProduct();
+        if (!salesStore.isLoaded()) {
+            return orderItemRepo.calculateTotalSalesByProduct();
+        }
+        return salesStore.salesByProduct().stream()
+                .map(sales -> new Object[]{sales.getProductId(), sales.getQuantity()})
+                .toList();
+    }
+
+    /**
+     * Get units sold and revenue per product for orders in a date range
+     */
+    public List<ProductSalesDto> getSalesInDateRange(LocalDate startDate, LocalDate endDate) {
+        if (salesStore.isLoaded()) {
+            return salesStore.salesInDateRange(startDate, endDate);
+        }
+        Map<Long, ProductSalesDto> byProduct = new HashMap<>();
+        for (OrderItem item : orderItemRepo.findByOrderOrderDateBetween(startDate, endDate)) {
+            ProductSalesDto sales = byProduct.computeIfAbsent(item.getProduct().getId(),
+                    productId -> new ProductSalesDto(productId, 0, 0));
+            sales.setQuantity(sales.getQuantity() + item.getQuantity());
+            sales.setRevenue(sales.getRevenue() + item.getTotalPrice());
+        }
+        List<ProductSalesDto> result = new ArrayList<>(byProduct.values());
+        result.sort(Comparator.comparingLong(ProductSalesDto::getQuantity).reversed()
+                .thenComparingLong(ProductSalesDto::getProductId));
+        return result;
     }
 
     /**
@@ -211,4 +267,19 @@ public class OrderItemService {
     public List<OrderItem> getItemsSoldInDateRange(java.time.LocalDate startDate, java.time.LocalDate endDate) {
         return orderItemRepo.findByOrderOrderDateBetween(startDate, endDate);
     }
-}
\ No newline at end of file
+
+    private void recordLine(OrderItem item) {
+        if (item.getProduct() != null) {
+            salesStore.recordLine(item.getProduct().getId(), item.getQuantity(), item.getUnitPrice(),
+                    item.getOrder().getOrderDate());
+        }
+    }
+
+    // Cancels out the line as it is now, before it is changed or deleted
+    private void retractLine(OrderItem item) {
+        if (item.getProduct() != null) {
+            salesStore.recordLine(item.getProduct().getId(), -item.getQuantity(), item.getUnitPrice(),
+                    item.getOrder().getOrderDate());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OrderPlacementDto;
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.Order;
+import com.example.demo.exceptions.InvalidOrderStateException;
+import com.example.demo.exceptions.PlacementQueueFullException;
+import com.example.demo.exceptions.ResourceNotFoundException;
+import com.example.demo.repositories.CartRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous checkout.
+ * Carts are accepted onto bounded in-process queues partitioned by user, so one user's
+ * checkouts run in order and never concurrently. A fixed pool with one worker per
+ * partition drains the queues in micro-batches through OrderService.createOrderFromCart;
+ * each order still commits in its own transaction so a failing cart does not affect its
+ * neighbours. When a partition is full the submit is rejected instead of blocking a
+ * request thread.
+ */
+@Service
+public class OrderPlacementService {
+    public static final String PENDING = "PENDING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    private final int batchSize;
+    private final Duration retention;
+    private final List<BlockingQueue<Placement>> partitions = new ArrayList<>();
+    private final ConcurrentHashMap<String, Placement> placements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Placement> pendingByCart = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
+    public OrderPlacementService(@Value("${store.placement.partitions:4}") int partitionCount,
+                                 @Value("${store.placement.queue-capacity:256}") int queueCapacity,
+                                 @Value("${store.placement.batch-size:16}") int batchSize,
+                                 @Value("${store.placement.retention:PT10M}") Duration retention) {
+        this.batchSize = batchSize;
+        this.retention = retention;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(partitions.size(), runnable -> {
+            Thread thread = new Thread(runnable, "order-placement-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (BlockingQueue<Placement> queue : partitions) {
+            workers.submit(() -> drain(queue));
+        }
+    }
+
+    @PreDestroy
+    void stopWorkers() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Accept a cart for asynchronous checkout.
+     * Submitting a cart that is already queued returns the existing placement.
+     *
+     * @throws ResourceNotFoundException   if the cart does not exist
+     * @throws InvalidOrderStateException  if the cart is inactive or has no user
+     * @throws PlacementQueueFullException if the user's partition is full
+     */
+    public OrderPlacementDto submit(Long cartId, String shippingAddress, String shippingCity,
+                                    String shippingZipCode, String shippingCountry) {
+        Cart cart = cartRepo.findById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found with id: " + cartId));
+        // Rejected up front: the partition is chosen by user
+        if (!cart.isActive()) {
+            throw new InvalidOrderStateException("Cannot create order from inactive cart");
+        }
+        if (cart.getUser() == null) {
+            throw new InvalidOrderStateException("Cannot create order from a cart without a user");
+        }
+
+        Placement placement = new Placement(cartId, shippingAddress, shippingCity, shippingZipCode, shippingCountry);
+        Placement existing = pendingByCart.putIfAbsent(cartId, placement);
+        if (existing != null) {
+            return existing.toDto();
+        }
+
+        BlockingQueue<Placement> queue = partitions.get(Math.floorMod(cart.getUser().getId().hashCode(), partitions.size()));
+        placements.put(placement.id, placement);
+        if (!queue.offer(placement)) {
+            placements.remove(placement.id);
+            pendingByCart.remove(cartId, placement);
+            throw new PlacementQueueFullException("Checkout queue is full, please retry shortly");
+        }
+        return placement.toDto();
+    }
+
+    /**
+     * Current status of a placement
+     */
+    public Optional<OrderPlacementDto> getPlacement(String placementId) {
+        return Optional.ofNullable(placements.get(placementId)).map(Placement::toDto);
+    }
+
+    /**
+     * Future completed when the placement finishes, or empty if the placement is unknown
+     */
+    public Optional<CompletableFuture<OrderPlacementDto>> awaitPlacement(String placementId) {
+        return Optional.ofNullable(placements.get(placementId))
+                .map(placement -> placement.done.thenApply(Placement::toDto));
+    }
+
+    /**
+     * Number of placements waiting in all partitions
+     */
+    public int queueDepth() {
+        return partitions.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    /**
+     * Forget finished placements older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${store.placement.purge-ms:60000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        placements.values().removeIf(placement ->
+                placement.completedAt != null && placement.completedAt.isBefore(cutoff));
+    }
+
+    private void drain(BlockingQueue<Placement> queue) {
+        List<Placement> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                for (Placement placement : batch) {
+                    place(placement);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void place(Placement placement) {
+        String status;
+        try {
+            Order order = orderService.createOrderFromCart(placement.cartId, placement.shippingAddress,
+                    placement.shippingCity, placement.shippingZipCode, placement.shippingCountry);
+            placement.orderId = order.getId();
+            status = COMPLETED;
+        } catch (RuntimeException e) {
+            placement.error = e.getMessage();
+            status = FAILED;
+        } catch (Throwable e) {
+            // An Error must not kill the partition's worker and strand its queue
+            placement.error = e.toString();
+            status = FAILED;
+        }
+        placement.completedAt = LocalDateTime.now();
+        // Publish the status last so readers that see it finished also see its result
+        placement.status = status;
+        pendingByCart.remove(placement.cartId, placement);
+        placement.done.complete(placement);
+    }
+
+    private static final class Placement {
+        final String id = UUID.randomUUID().toString();
+        final Long cartId;
+        final String shippingAddress;
+        final String shippingCity;
+        final String shippingZipCode;
+        final String shippingCountry;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final CompletableFuture<Placement> done = new CompletableFuture<>();
+
+        volatile String status = PENDING;
+        volatile Long orderId;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+
+        Placement(Long cartId, String shippingAddress, String shippingCity,
+                  String shippingZipCode, String shippingCountry) {
+            this.cartId = cartId;
+            this.shippingAddress = shippingAddress;
+            this.shippingCity = shippingCity;
+            this.shippingZipCode = shippingZipCode;
+            this.shippingCountry = shippingCountry;
+        }
+
+        OrderPlacementDto toDto() {
+            return new OrderPlacementDto(id, cartId, status, orderId, error, submittedAt, completedAt);
+        }
+    }
+}
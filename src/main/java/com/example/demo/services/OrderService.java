@@ -1,18 +1,30 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.DailyRevenueDto;
+import com.example.demo.dto.OrderSummaryDto;
+import com.example.demo.dto.SeekCursor;
 import com.example.demo.entities.*;
+import com.example.demo.events.OrderRevenueChangedEvent;
 import com.example.demo.exceptions.InsufficientInventoryException;
 import com.example.demo.exceptions.InvalidOrderStateException;
 import com.example.demo.exceptions.ResourceNotFoundException;
+import com.example.demo.monitoring.BusinessMetrics;
 import com.example.demo.repositories.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,6 +36,9 @@ import java.util.stream.Collectors;
  */
 @Service
 public class OrderService {
+    // Upper bound used as the cursor of the first keyset page
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private OrderRepo orderRepo;
 
@@ -33,15 +48,42 @@ public class OrderService {
     @Autowired
     private CartRepo cartRepo;
 
-    @Autowired
-    private CartItemRepo cartItemRepo;
-
     @Autowired
     private ProductRepo productRepo;
 
     @Autowired
     private PaymentRepo paymentRepo;
 
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private OrderStateMachine stateMachine;
+
+    @Autowired
+    private StoreMetrics metrics;
+
+    @Autowired
+    private DailyRevenueService dailyRevenueService;
+
+    @Autowired
+    private SalesColumnStore salesStore;
+
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    void registerTransitionHooks() {
+        // Cancelled orders give their units back to stock
+        stateMachine.onEnter(StatusOrder.CANCELLED, this::restoreProductInventory);
+    }
+
     /**
      * Get all orders with optional pagination
      */
@@ -56,6 +98,20 @@ public class OrderService {
         return orderRepo.findAll();
     }
 
+    /**
+     * Get all orders as list summaries (one query, no entity graph)
+     */
+    public List<OrderSummaryDto> getSummaries() {
+        return orderRepo.findAllSummaries().stream().map(OrderService::toSummary).toList();
+    }
+
+    /**
+     * Get order summaries with pagination
+     */
+    public Page<OrderSummaryDto> getSummaries(Pageable pageable) {
+        return orderRepo.findSummaries(pageable).map(OrderService::toSummary);
+    }
+
     /**
      * Get order by ID
      */
@@ -93,6 +149,26 @@ public class OrderService {
         return orderRepo.findOrdersByFilters(userId, status, startDate, endDate, minAmount, pageable);
     }
 
+    /**
+     * Filter orders with keyset pagination, newest first.
+     * No count query is issued, so a deep page costs the same as the first one.
+     */
+    public CursorPageDto<Order> filterOrdersAfter(Long userId, StatusOrder status,
+                                                  LocalDate startDate, LocalDate endDate,
+                                                  Double minAmount, String after, int size) {
+        LocalDateTime afterCreatedAt = MAX_CREATED_AT;
+        long afterId = Long.MAX_VALUE;
+        if (after != null) {
+            SeekCursor cursor = SeekCursor.decode(after);
+            afterCreatedAt = cursor.keyAsDateTime();
+            afterId = cursor.getId();
+        }
+
+        Slice<Order> slice = orderRepo.findOrdersByFiltersAfter(userId, status, startDate, endDate, minAmount,
+                afterCreatedAt, afterId, PageRequest.of(0, size));
+        return CursorPageDto.of(slice, order -> SeekCursor.of(order.getCreatedAt(), order.getId()));
+    }
+
     /**
      * Create a new order
      */
@@ -113,7 +189,11 @@ public class OrderService {
             order.updateStatus(StatusOrder.PENDING, "Order created");
         }
 
-        return orderRepo.save(order);
+        Order saved = orderRepo.save(order);
+        metrics.orderCreated(saved.getStatusOrder(), saved.getTotalAmount());
+        eventPublisher.publishEvent(OrderRevenueChangedEvent.created(saved));
+        salesStore.record(saved);
+        return saved;
     }
 
     /**
@@ -157,7 +237,10 @@ public class OrderService {
             throw new InvalidOrderStateException("Can only delete orders in PENDING state");
         }
 
+        salesStore.retract(order);
         orderRepo.deleteById(id);
+        metrics.orderDeleted(order.getStatusOrder(), order.getTotalAmount());
+        eventPublisher.publishEvent(OrderRevenueChangedEvent.deleted(order));
     }
 
     /**
@@ -175,62 +258,37 @@ public class OrderService {
         Order order = orderRepo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
 
-        // Validate status transition
-        validateStatusTransition(order.getStatusOrder(), newStatus);
-
-        // Update the order status
-        order.updateStatus(newStatus, comment);
-
-        // If order is completed, update product inventory
-        if (newStatus == StatusOrder.DELIVERED) {
-            updateProductInventoryForDeliveredOrder(order);
-        }
-
-        // If order is cancelled, restore inventory
-        if (newStatus == StatusOrder.CANCELLED) {
-            restoreProductInventory(order);
-        }
+        // Validate, record history and run transition hooks (e.g. inventory restore on cancel)
+        stateMachine.transition(order, newStatus, comment);
 
         return orderRepo.save(order);
     }
 
     /**
-     * Validate that a status transition is allowed
+     * Bulk status transition, e.g. PROCESSING -> SHIPPED for a carrier manifest
      */
-    private void validateStatusTransition(StatusOrder currentStatus, StatusOrder newStatus) {
-        // Define allowed transitions
-        Map<StatusOrder, List<StatusOrder>> allowedTransitions = Map.of(
-                StatusOrder.PENDING, List.of(StatusOrder.PROCESSING, StatusOrder.CANCELLED),
-                StatusOrder.PROCESSING, List.of(StatusOrder.SHIPPED, StatusOrder.CANCELLED),
-                StatusOrder.SHIPPED, List.of(StatusOrder.DELIVERED, StatusOrder.RETURNED),
-                StatusOrder.DELIVERED, List.of(StatusOrder.RETURNED),
-                StatusOrder.CANCELLED, List.of(), // Terminal state
-                StatusOrder.RETURNED, List.of()   // Terminal state
-        );
-
-        if (!allowedTransitions.getOrDefault(currentStatus, List.of()).contains(newStatus)) {
-            throw new InvalidOrderStateException(
-                    "Invalid status transition from " + currentStatus + " to " + newStatus);
-        }
+    public List<BulkStatusResultDto> bulkUpdateStatus(List<Long> orderIds, StatusOrder newStatus, String comment) {
+        return stateMachine.bulkTransition(orderIds, newStatus, comment);
     }
 
     /**
-     * Update product inventory when order is marked as delivered
+     * Bulk status transition that also records tracking numbers (order id -> tracking number)
      */
-    private void updateProductInventoryForDeliveredOrder(Order order) {
-        // Implementation depends on your inventory management approach
-        // This is a placeholder - actual implementation would depend on your requirements
+    public List<BulkStatusResultDto> bulkUpdateStatus(List<Long> orderIds, StatusOrder newStatus, String comment,
+                                                      Map<Long, String> trackingNumbers) {
+        return stateMachine.bulkTransition(orderIds, newStatus, comment,
+                trackingNumbers == null ? Map.of() : trackingNumbers);
     }
 
     /**
-     * Restore product inventory when order is cancelled
+     * Restore product inventory when orders are cancelled
      */
-    private void restoreProductInventory(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() + item.getQuantity());
-            productRepo.save(product);
+    private void restoreProductInventory(StatusOrder from, StatusOrder to, List<Long> orderIds) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Object[] row : orderItemRepo.sumQuantitiesByProductForOrders(orderIds)) {
+            quantities.put((Long) row[0], ((Number) row[1]).intValue());
         }
+        inventoryService.incrementStock(quantities);
     }
 
     /**
@@ -256,46 +314,42 @@ public class OrderService {
         // Validate inventory before creating order
         validateInventory(cart);
 
-        // Create new order
+        // Decrement inventory for all items atomically, in one batch.
+        // Fails the whole checkout if any item was sold out in the meantime.
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (CartItem cartItem : cart.getCartItems()) {
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        inventoryService.decrementStock(quantities);
+
+        // Build the order with its items in memory; persisting the order cascades to the
+        // items and the initial status history, and Hibernate sends each table as one batch
         Order order = new Order(cart.getUser(), LocalDate.now(), StatusOrder.PENDING);
         order.setShippingAddress(shippingAddress);
         order.setShippingCity(shippingCity);
         order.setShippingZipCode(shippingZipCode);
         order.setShippingCountry(shippingCountry);
-        order = orderRepo.save(order);
 
-        // Get cart items
-        List<CartItem> cartItems = cartItemRepo.findByCartId(cartId);
         double totalAmount = 0.0;
-
-        // Create order items from cart items and update inventory
-        for (CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
-
-            // Update product inventory
-            int newQuantity = product.getQuantity() - cartItem.getQuantity();
-            if (newQuantity < 0) {
-                throw new InsufficientInventoryException(
-                        "Not enough inventory for product: " + product.getName());
-            }
-            product.setQuantity(newQuantity);
-            productRepo.save(product);
-
-            // Create order item
-            double itemPrice = cartItem.getUnitPrice() * cartItem.getQuantity();
-            totalAmount += itemPrice;
-
-            OrderItem orderItem = new OrderItem(order, product, cartItem.getQuantity(), cartItem.getUnitPrice());
-            orderItemRepo.save(orderItem);
+        int units = 0;
+        for (CartItem cartItem : cart.getCartItems()) {
+            OrderItem orderItem = new OrderItem(order, cartItem.getProduct(), cartItem.getQuantity(), cartItem.getUnitPrice());
+            order.getOrderItems().add(orderItem);
+            totalAmount += cartItem.getUnitPrice() * cartItem.getQuantity();
+            units += cartItem.getQuantity();
         }
-
-        // Update order total
         order.setTotalAmount(totalAmount);
         order = orderRepo.save(order);
+        metrics.orderCreated(order.getStatusOrder(), totalAmount);
+        eventPublisher.publishEvent(OrderRevenueChangedEvent.created(order));
+        salesStore.record(order);
+        businessMetrics.checkoutCompleted(cart.getCartItems().size(), units);
 
-        // Deactivate the cart
+        // Deactivate the cart (managed entity, flushed as a single update); its holds are
+        // now real stock decrements
         cart.setActive(false);
-        cartRepo.save(cart);
+        metrics.cartDeactivated();
+        reservationService.releaseAllAfterCommit(StockReservationService.cartOwner(cartId));
 
         return order;
     }
@@ -304,12 +358,15 @@ public class OrderService {
      * Validate that there is sufficient inventory for all items in the cart
      */
     private void validateInventory(Cart cart) {
+        String owner = StockReservationService.cartOwner(cart.getId());
         for (CartItem item : cart.getCartItems()) {
             Product product = item.getProduct();
-            if (product.getQuantity() < item.getQuantity()) {
+            // Units held by other carts are not available to this checkout
+            int available = reservationService.availableToPromise(owner, product.getId(), product.getQuantity());
+            if (available < item.getQuantity()) {
                 throw new InsufficientInventoryException(
                         "Not enough inventory for product: " + product.getName() +
-                                ". Available: " + product.getQuantity() +
+                                ". Available: " + available +
                                 ", Requested: " + item.getQuantity());
             }
         }
@@ -317,12 +374,17 @@ public class OrderService {
 
     /**
      * Process payment for an order
+     *
+     * @throws InvalidOrderStateException if the order cannot move to PROCESSING
      */
     @Transactional
     public Payment processPayment(Long orderId, PaymentMethod paymentMethod, String transactionId) {
         Order order = orderRepo.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
+        // Only an order that may move to PROCESSING can be paid
+        stateMachine.validate(order.getStatusOrder(), StatusOrder.PROCESSING);
+
         // Create payment
         Payment payment = new Payment(order, paymentMethod, order.getTotalAmount());
 
@@ -332,8 +394,8 @@ public class OrderService {
         // Save payment
         payment = paymentRepo.save(payment);
 
-        // Update order status
-        order.updateStatus(StatusOrder.PROCESSING, "Payment processed");
+        // Update order status (history, counters, revenue rollup and hooks)
+        stateMachine.transition(order, StatusOrder.PROCESSING, "Payment processed");
         orderRepo.save(order);
 
         return payment;
@@ -352,10 +414,17 @@ public class OrderService {
     }
 
     /**
-     * Get revenue statistics by date range
+     * Get revenue statistics by date range (read from the daily revenue rollup)
      */
     public List<Object[]> getRevenueByDateRange(LocalDate startDate, LocalDate endDate) {
-        return orderRepo.sumOrderAmountsByDate(startDate, endDate);
+        return dailyRevenueService.getRevenueByDateRange(startDate, endDate);
+    }
+
+    /**
+     * Get revenue per day with order counts and the split by status
+     */
+    public List<DailyRevenueDto> getDailyRevenue(LocalDate startDate, LocalDate endDate) {
+        return dailyRevenueService.getDailyRevenue(startDate, endDate);
     }
 
     /**
@@ -364,4 +433,9 @@ public class OrderService {
     public List<Order> getRecentOrders() {
         return orderRepo.findTop10ByOrderByCreatedAtDesc();
     }
-}
\ No newline at end of file
+
+    private static OrderSummaryDto toSummary(Object[] row) {
+        return new OrderSummaryDto((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDateTime) row[3],
+                (StatusOrder) row[4], (Double) row[5], (String) row[6], (Long) row[7]);
+    }
+}
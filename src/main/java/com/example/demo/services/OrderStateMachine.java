@@ -0,0 +1,288 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderStatusHistory;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.events.OrderRevenueChangedEvent;
+import com.example.demo.exceptions.InvalidOrderStateException;
+import com.example.demo.repositories.OrderRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Order status transitions.
+ * The allowed transitions are compiled once into an EnumMap of EnumSets, so checking a
+ * transition is a bit test. Hooks registered for a transition receive the ids of the
+ * orders that made it, for single updates and bulk transitions alike, so a hook can do
+ * its work set-wise.
+ */
+@Component
+public class OrderStateMachine {
+    private static final Map<StatusOrder, Set<StatusOrder>> TARGETS;
+    private static final Map<StatusOrder, Set<StatusOrder>> SOURCES;
+
+    static {
+        EnumMap<StatusOrder, Set<StatusOrder>> targets = new EnumMap<>(StatusOrder.class);
+        targets.put(StatusOrder.PENDING, EnumSet.of(StatusOrder.PROCESSING, StatusOrder.CANCELLED));
+        targets.put(StatusOrder.PROCESSING, EnumSet.of(StatusOrder.SHIPPED, StatusOrder.CANCELLED));
+        targets.put(StatusOrder.SHIPPED, EnumSet.of(StatusOrder.DELIVERED, StatusOrder.RETURNED));
+        targets.put(StatusOrder.DELIVERED, EnumSet.of(StatusOrder.RETURNED));
+        targets.put(StatusOrder.CANCELLED, EnumSet.noneOf(StatusOrder.class)); // Terminal state
+        targets.put(StatusOrder.RETURNED, EnumSet.noneOf(StatusOrder.class));  // Terminal state
+
+        EnumMap<StatusOrder, Set<StatusOrder>> sources = new EnumMap<>(StatusOrder.class);
+        for (StatusOrder status : StatusOrder.values()) {
+            sources.put(status, EnumSet.noneOf(StatusOrder.class));
+        }
+        targets.forEach((from, tos) -> tos.forEach(to -> sources.get(to).add(from)));
+
+        targets.replaceAll((status, set) -> Collections.unmodifiableSet(set));
+        sources.replaceAll((status, set) -> Collections.unmodifiableSet(set));
+        TARGETS = Collections.unmodifiableMap(targets);
+        SOURCES = Collections.unmodifiableMap(sources);
+    }
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE orders SET status_order = ?, updated_at = ?, tracking_number = COALESCE(?, tracking_number) " +
+                    "WHERE id = ? AND status_order = ?";
+
+    // Upper bound for IN lists when reading current statuses
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StoreMetrics metrics;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    // target status -> hooks
+    private final Map<StatusOrder, List<HookRegistration>> hooks = new EnumMap<>(StatusOrder.class);
+
+    public OrderStateMachine() {
+        for (StatusOrder status : StatusOrder.values()) {
+            hooks.put(status, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Callback run inside the transaction after orders moved from one status to another
+     */
+    @FunctionalInterface
+    public interface TransitionHook {
+        void afterTransition(StatusOrder from, StatusOrder to, List<Long> orderIds);
+    }
+
+    public boolean canTransition(StatusOrder from, StatusOrder to) {
+        return from != null && to != null && TARGETS.get(from).contains(to);
+    }
+
+    /**
+     * @throws InvalidOrderStateException if the transition is not allowed
+     */
+    public void validate(StatusOrder from, StatusOrder to) {
+        if (!canTransition(from, to)) {
+            throw new InvalidOrderStateException("Invalid status transition from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Statuses an order in the given status may move to
+     */
+    public Set<StatusOrder> allowedTargets(StatusOrder from) {
+        return TARGETS.get(from);
+    }
+
+    /**
+     * Statuses from which an order may move to the given status
+     */
+    public Set<StatusOrder> allowedSources(StatusOrder to) {
+        return SOURCES.get(to);
+    }
+
+    /**
+     * Register a hook for one transition
+     */
+    public void on(StatusOrder from, StatusOrder to, TransitionHook hook) {
+        if (!canTransition(from, to)) {
+            throw new IllegalArgumentException("No transition from " + from + " to " + to);
+        }
+        hooks.get(to).add(new HookRegistration(EnumSet.of(from), hook));
+    }
+
+    /**
+     * Register a hook for every transition into a status
+     */
+    public void onEnter(StatusOrder to, TransitionHook hook) {
+        hooks.get(to).add(new HookRegistration(EnumSet.copyOf(allowedSources(to)), hook));
+    }
+
+    /**
+     * Move one order to a new status, recording history and running the transition hooks
+     */
+    public void transition(Order order, StatusOrder to, String comment) {
+        StatusOrder from = order.getStatusOrder();
+        validate(from, to);
+        order.updateStatus(to, comment);
+        metrics.orderStatusChanged(from, to, order.getTotalAmount());
+        eventPublisher.publishEvent(OrderRevenueChangedEvent.statusChanged(order, from));
+        runHooks(from, to, List.of(order.getId()));
+    }
+
+    /**
+     * Move many orders to a new status at once.
+     * Current statuses are read set-wise, the status updates go out as one JDBC batch
+     * (guarded by the expected current status) and the history rows are batch-inserted.
+     * Orders that are missing, cannot make the transition, or changed concurrently are
+     * reported per id instead of failing the whole batch.
+     *
+     * @return one result per distinct id, in request order
+     */
+    @Transactional
+    public List<BulkStatusResultDto> bulkTransition(List<Long> orderIds, StatusOrder to, String comment) {
+        return bulkTransition(orderIds, to, comment, Map.of());
+    }
+
+    /**
+     * Bulk transition that also sets tracking numbers (order id -> tracking number);
+     * orders without an entry keep their current tracking number
+     */
+    @Transactional
+    public List<BulkStatusResultDto> bulkTransition(List<Long> orderIds, StatusOrder to, String comment,
+                                                    Map<Long, String> trackingNumbers) {
+        List<Long> ids = orderIds.stream().distinct().toList();
+        Map<Long, StatusOrder> current = new HashMap<>();
+        Map<Long, Double> amounts = new HashMap<>();
+        Map<Long, LocalDate> orderDates = new HashMap<>();
+        loadCurrentState(ids, current, amounts, orderDates);
+
+        Map<Long, BulkStatusResultDto> results = new HashMap<>();
+        List<Long> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            StatusOrder from = current.get(id);
+            if (from == null) {
+                results.put(id, new BulkStatusResultDto(id, BulkStatusResultDto.NOT_FOUND, null, null));
+            } else if (!canTransition(from, to)) {
+                results.put(id, new BulkStatusResultDto(id, BulkStatusResultDto.INVALID_TRANSITION, from, from));
+            } else {
+                candidates.add(id);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, candidates, batchSize, (ps, id) -> {
+                ps.setString(1, to.name());
+                ps.setTimestamp(2, now);
+                ps.setString(3, trackingNumbers.get(id));
+                ps.setLong(4, id);
+                ps.setString(5, current.get(id).name());
+            });
+
+            List<Long> updated = new ArrayList<>(candidates.size());
+            List<OrderRevenueChangedEvent.Change> changes = new ArrayList<>(candidates.size());
+            Map<StatusOrder, List<Long>> updatedByFrom = new EnumMap<>(StatusOrder.class);
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Long id = candidates.get(index++);
+                    StatusOrder from = current.get(id);
+                    if (count == 0) {
+                        results.put(id, new BulkStatusResultDto(id, BulkStatusResultDto.CONFLICT, from, null));
+                    } else {
+                        results.put(id, new BulkStatusResultDto(id, BulkStatusResultDto.UPDATED, from, to));
+                        metrics.orderStatusChanged(from, to, amounts.get(id));
+                        changes.add(new OrderRevenueChangedEvent.Change(orderDates.get(id), from, to, amounts.get(id)));
+                        updated.add(id);
+                        updatedByFrom.computeIfAbsent(from, status -> new ArrayList<>()).add(id);
+                    }
+                }
+            }
+
+            insertHistory(updated, to, comment);
+            if (!changes.isEmpty()) {
+                eventPublisher.publishEvent(new OrderRevenueChangedEvent(changes));
+            }
+            updatedByFrom.forEach((from, group) -> runHooks(from, to, group));
+        }
+
+        return ids.stream().map(results::get).toList();
+    }
+
+    private void loadCurrentState(List<Long> ids, Map<Long, StatusOrder> statuses, Map<Long, Double> amounts,
+                                  Map<Long, LocalDate> orderDates) {
+        for (int start = 0; start < ids.size(); start += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(ids.size(), start + LOOKUP_CHUNK_SIZE));
+            for (Object[] row : orderRepo.findStatusesByIds(chunk)) {
+                statuses.put((Long) row[0], (StatusOrder) row[1]);
+                amounts.put((Long) row[0], (Double) row[2]);
+                orderDates.put((Long) row[0], (LocalDate) row[3]);
+            }
+        }
+    }
+
+    private void insertHistory(List<Long> orderIds, StatusOrder to, String comment) {
+        List<OrderStatusHistory> pending = new ArrayList<>(batchSize);
+        for (Long id : orderIds) {
+            OrderStatusHistory history = new OrderStatusHistory(entityManager.getReference(Order.class, id), to, comment);
+            entityManager.persist(history);
+            pending.add(history);
+            if (pending.size() == batchSize) {
+                flushAndDetach(pending);
+            }
+        }
+        flushAndDetach(pending);
+    }
+
+    // Keeps the persistence context small while inserting thousands of history rows
+    private void flushAndDetach(List<OrderStatusHistory> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        pending.forEach(entityManager::detach);
+        pending.clear();
+    }
+
+    private void runHooks(StatusOrder from, StatusOrder to, List<Long> orderIds) {
+        for (HookRegistration registration : hooks.get(to)) {
+            if (registration.from.contains(from)) {
+                registration.hook.afterTransition(from, to, orderIds);
+            }
+        }
+    }
+
+    private record HookRegistration(Set<StatusOrder> from, TransitionHook hook) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.services;
+
+import com.example.demo.events.CategoryChangedEvent;
+import com.example.demo.events.ProductChangedEvent;
+import com.example.demo.events.ProductDetailsChangedEvent;
+import com.example.demo.events.ProductsImportedEvent;
+import com.example.demo.repositories.ProductRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serialized JSON of the product page (GET /products/{id}), kept in memory.
+ * The cache is bounded by the total size of the stored bytes and uses Caffeine's
+ * W-TinyLFU eviction, so a burst of one-off product views does not push out the
+ * popular products. Concurrent misses on the same id share one load.
+ * Entries are dropped after commit of every change that shows on the page: product
+ * events from ProductService, stock moved by InventoryService, reviews and changes to
+ * the product's category. Because
+ * a drop waits for a load of the same id that is still running, a load that read
+ * the old row cannot survive the commit that replaced it.
+ */
+@Component
+public class ProductDetailCache {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LoadingCache<Long, byte[]> cache;
+
+    public ProductDetailCache(@Value("${store.product-cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${store.product-cache.ttl:PT10M}") Duration ttl,
+                              MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, byte[] json) -> json.length)
+                // Safety net for rows changed outside the application
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(registry, cache, "productDetail");
+    }
+
+    /**
+     * Get the product page as JSON bytes, loading it on a miss. Missing products are not cached
+     */
+    public Optional<byte[]> get(Long id) {
+        return Optional.ofNullable(cache.get(id));
+    }
+
+    private byte[] load(Long id) {
+        return productService.getDetail(id).map(detail -> {
+            try {
+                return objectMapper.writeValueAsBytes(detail);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize product " + id, e);
+            }
+        }).orElse(null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.getProductId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductDetailsChanged(ProductDetailsChangedEvent event) {
+        cache.invalidateAll(event.getProductIds());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(product -> cache.invalidate(product.getId()));
+    }
+
+    // The page shows the category name
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidateAll(productRepo.findIdsByCategoryId(event.getCategoryId()));
+    }
+
+    /**
+     * Number of cached products
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
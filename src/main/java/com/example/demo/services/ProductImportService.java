@@ -0,0 +1,593 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.ProductImportDto;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.events.ProductsImportedEvent;
+import com.example.demo.repositories.CategoryRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bulk product import from CSV or NDJSON.
+ * The body is parsed row by row as it arrives and never held in memory as a whole.
+ * Categories are resolved by name from a map loaded once per import. Rows are collected
+ * into chunks, each written in its own transaction: a product with the same brand and
+ * model is updated, anything else is inserted, both as JDBC batches. Invalid rows are
+ * reported with their line number and skipped. The writes bypass Hibernate, so each
+ * chunk invalidates the product cache regions the way a native bulk update does.
+ */
+@Service
+public class ProductImportService {
+    // name, price and model are required; model (with brand) identifies the product
+    private static final String[] COLUMNS = {"name", "description", "price", "quantity", "category", "brand", "model"};
+    private static final int NAME = 0, DESCRIPTION = 1, PRICE = 2, QUANTITY = 3, CATEGORY = 4, BRAND = 5, MODEL = 6;
+
+    // Length of the product text columns
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    // Short IN lists: H2 gets slower per key as the list grows, and databases cap parameters
+    private static final int LOOKUP_CHUNK_SIZE = 100;
+
+    private static final String FIND_IDS_SQL = "SELECT id, brand, model FROM product WHERE model IN (%s)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product (name, description, price, quantity, category_id, brand, model, active, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE product SET name = ?, description = ?, price = ?, quantity = ?, category_id = ?, active = TRUE, " +
+                    "updated_at = ? WHERE id = ?";
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StoreMetrics metrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${store.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${store.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${store.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Import the stream and write one NDJSON progress line per committed chunk to out
+     *
+     * @return the final totals
+     */
+    public ProductImportDto importProducts(Format format, InputStream in, OutputStream out) throws IOException {
+        try {
+            return importProducts(format, in, report -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(report));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Import the stream, passing running totals to progress after every committed chunk
+     * and once more (with done set) at the end
+     *
+     * @return the final totals
+     */
+    public ProductImportDto importProducts(Format format, InputStream in, Consumer<ProductImportDto> progress)
+            throws IOException {
+        Import run = new Import(progress);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        try {
+            rows.start();
+        } catch (IllegalArgumentException e) {
+            run.error(rows.line(), e.getMessage());
+            return run.finish();
+        }
+        while (true) {
+            String[] values;
+            try {
+                values = rows.next();
+            } catch (IllegalArgumentException e) {
+                run.reject(rows.line(), e.getMessage());
+                continue;
+            }
+            if (values == null) {
+                return run.finish();
+            }
+            run.add(rows.line(), values);
+        }
+    }
+
+    private Map<String, Long> loadCategoryIds() {
+        Map<String, Long> ids = new HashMap<>();
+        for (Object[] row : categoryRepo.findNamesAndIds()) {
+            ids.put(((String) row[0]).trim().toLowerCase(Locale.ROOT), (Long) row[1]);
+        }
+        return ids;
+    }
+
+    // Write one chunk in its own transaction; returns {inserted, updated}
+    private int[] writeChunk(List<Row> rows) {
+        return transactionTemplate.execute(status -> {
+            Map<SkuKey, Long> existing = findIds(rows);
+            List<Row> inserts = new ArrayList<>();
+            List<Row> updates = new ArrayList<>();
+            for (Row row : rows) {
+                (existing.containsKey(row.key()) ? updates : inserts).add(row);
+            }
+
+            // Lock the product regions and invalidate cached product queries at commit
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            BulkOperationCleanupAction.schedule(session,
+                    session.getFactory().getMappingMetamodel().getEntityDescriptor(Product.class));
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> insertedIds = insert(inserts, now);
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates, batchSize, (ps, row) -> {
+                ps.setString(1, row.name());
+                ps.setString(2, row.description());
+                ps.setDouble(3, row.price());
+                ps.setInt(4, row.quantity());
+                ps.setObject(5, row.categoryId());
+                ps.setTimestamp(6, now);
+                ps.setLong(7, existing.get(row.key()));
+            });
+
+            List<Product> products = new ArrayList<>(rows.size());
+            for (int i = 0; i < inserts.size(); i++) {
+                products.add(inserts.get(i).toProduct(insertedIds.get(i)));
+            }
+            for (Row row : updates) {
+                products.add(row.toProduct(existing.get(row.key())));
+            }
+            eventPublisher.publishEvent(new ProductsImportedEvent(products));
+            metrics.productsAdded(inserts.size());
+            return new int[]{inserts.size(), updates.size()};
+        });
+    }
+
+    // Insert in JDBC batches; returns the generated ids in row order
+    private List<Long> insert(List<Row> rows, Timestamp now) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> ids = new ArrayList<>(rows.size());
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (int i = 0; i < rows.size(); i++) {
+                    Row row = rows.get(i);
+                    ps.setString(1, row.name());
+                    ps.setString(2, row.description());
+                    ps.setDouble(3, row.price());
+                    ps.setInt(4, row.quantity());
+                    ps.setObject(5, row.categoryId());
+                    ps.setString(6, row.brand());
+                    ps.setString(7, row.model());
+                    ps.setTimestamp(8, now);
+                    ps.setTimestamp(9, now);
+                    ps.addBatch();
+                    if ((i + 1) % batchSize == 0 || i + 1 == rows.size()) {
+                        ps.executeBatch();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                ids.add(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+
+    // Ids of existing products by brand and model; the oldest wins if a pair repeats
+    private Map<SkuKey, Long> findIds(List<Row> rows) {
+        Map<SkuKey, Long> ids = new HashMap<>();
+        for (int start = 0; start < rows.size(); start += LOOKUP_CHUNK_SIZE) {
+            Object[] models = rows.subList(start, Math.min(rows.size(), start + LOOKUP_CHUNK_SIZE)).stream()
+                    .map(Row::model)
+                    .toArray();
+            String sql = FIND_IDS_SQL.formatted(String.join(", ", Collections.nCopies(models.length, "?")));
+            jdbcTemplate.query(sql, rs -> {
+                ids.merge(new SkuKey(rs.getString(2), rs.getString(3)), rs.getLong(1), Math::min);
+            }, models);
+        }
+        return ids;
+    }
+
+    // State of one import run
+    private final class Import {
+        private final Consumer<ProductImportDto> progress;
+        private final long start = System.nanoTime();
+        private final Map<String, Long> categoryIds = loadCategoryIds();
+        private final ProductImportDto totals = new ProductImportDto();
+        private final Map<SkuKey, Row> chunk = new LinkedHashMap<>();
+        private long reportedErrors;
+
+        Import(Consumer<ProductImportDto> progress) {
+            this.progress = progress;
+        }
+
+        void add(long line, String[] values) {
+            Row row;
+            try {
+                row = toRow(line, values);
+            } catch (IllegalArgumentException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+            totals.setRows(totals.getRows() + 1);
+            // A later row for the same product replaces the earlier one
+            if (chunk.remove(row.key()) != null) {
+                totals.setDuplicates(totals.getDuplicates() + 1);
+            }
+            chunk.put(row.key(), row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+                report(false);
+            }
+        }
+
+        void reject(long line, String message) {
+            totals.setRows(totals.getRows() + 1);
+            totals.setFailed(totals.getFailed() + 1);
+            error(line, message);
+        }
+
+        void error(long line, String message) {
+            if (reportedErrors++ < maxReportedErrors) {
+                totals.getErrors().add(new ProductImportDto.RowError(line, message));
+            }
+        }
+
+        ProductImportDto finish() {
+            flush();
+            return report(true);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Row> rows = new ArrayList<>(chunk.values());
+            chunk.clear();
+            try {
+                int[] written = writeChunk(rows);
+                totals.setInserted(totals.getInserted() + written[0]);
+                totals.setUpdated(totals.getUpdated() + written[1]);
+            } catch (DataAccessException e) {
+                totals.setFailed(totals.getFailed() + rows.size());
+                error(rows.get(0).line(), "Chunk of " + rows.size() + " rows from line " + rows.get(0).line() +
+                        " was rolled back: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        private ProductImportDto report(boolean done) {
+            ProductImportDto report = new ProductImportDto(totals.getRows(), totals.getInserted(), totals.getUpdated(),
+                    totals.getDuplicates(), totals.getFailed(), (System.nanoTime() - start) / 1_000_000, done,
+                    new ArrayList<>(totals.getErrors()));
+            totals.getErrors().clear();
+            progress.accept(report);
+            return report;
+        }
+
+        private Row toRow(long line, String[] values) {
+            String name = text(values[NAME], "name");
+            if (name == null) {
+                throw new IllegalArgumentException("Product name cannot be empty");
+            }
+            String model = text(values[MODEL], "model");
+            if (model == null) {
+                throw new IllegalArgumentException("Model is required");
+            }
+            double price = number(values[PRICE], "price");
+            if (!(price > 0) || !Double.isFinite(price)) {
+                throw new IllegalArgumentException("Price must be a finite number greater than zero");
+            }
+            int quantity = values[QUANTITY] == null || values[QUANTITY].isBlank()
+                    ? 0 : integer(values[QUANTITY], "quantity");
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Quantity cannot be negative");
+            }
+            Long categoryId = null;
+            String category = text(values[CATEGORY], "category");
+            if (category != null) {
+                categoryId = categoryIds.get(category.toLowerCase(Locale.ROOT));
+                if (categoryId == null) {
+                    throw new IllegalArgumentException("Category not found: " + category);
+                }
+            }
+            return new Row(line, name, text(values[DESCRIPTION], "description"), price, quantity, categoryId,
+                    text(values[BRAND], "brand"), model);
+        }
+
+        private static String text(String value, String column) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String trimmed = value.trim();
+            if (trimmed.length() > MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException("Value of " + column + " is longer than " + MAX_TEXT_LENGTH);
+            }
+            return trimmed;
+        }
+
+        private static double number(String value, String column) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        // Whole numbers only: "2.7" or "1e12" is an error, not a truncated or saturated value
+        private static int integer(String value, String column) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+    }
+
+    private record SkuKey(String brand, String model) {
+    }
+
+    private record Row(long line, String name, String description, double price, int quantity, Long categoryId,
+                       String brand, String model) {
+        SkuKey key() {
+            return new SkuKey(brand, model);
+        }
+
+        Product toProduct(Long id) {
+            Category category = null;
+            if (categoryId != null) {
+                category = new Category();
+                category.setId(categoryId);
+            }
+            Product product = new Product(name, description, price, category, quantity, brand, model);
+            product.setId(id);
+            return product;
+        }
+    }
+
+    // Yields the values of each data row in COLUMNS order, null for missing fields. A row
+    // that cannot be read throws IllegalArgumentException and the reader moves on
+    private interface RowReader {
+        void start() throws IOException;
+
+        String[] next() throws IOException;
+
+        // line number of the row last returned
+        long line();
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns, in any order. Quoted fields may
+     * contain commas, doubled quotes and line breaks.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final BufferedReader reader;
+        private final StringBuilder field = new StringBuilder();
+        private int[] positions;
+        private long line;
+        private long rowLine;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public void start() throws IOException {
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            // Drop a UTF-8 byte order mark
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            positions = new int[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++) {
+                positions[column] = -1;
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).trim().equalsIgnoreCase(COLUMNS[column])) {
+                        positions[column] = i;
+                    }
+                }
+            }
+            for (int column : new int[]{NAME, PRICE, MODEL}) {
+                if (positions[column] < 0) {
+                    throw new IllegalArgumentException("Missing column: " + COLUMNS[column]);
+                }
+            }
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            String[] values = new String[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++) {
+                int position = positions[column];
+                values[column] = position >= 0 && position < record.size() ? record.get(position) : null;
+            }
+            return values;
+        }
+
+        @Override
+        public long line() {
+            return rowLine;
+        }
+
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            rowLine = ++line;
+            List<String> fields = new ArrayList<>(COLUMNS.length);
+            field.setLength(0);
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    // Line break inside a quoted field
+                    text = reader.readLine();
+                    if (text == null) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * One JSON object per line with the column names as keys
+     */
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid JSON");
+            }
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            String[] values = new String[COLUMNS.length];
+            for (int column = 0; column < COLUMNS.length; column++) {
+                JsonNode value = node.get(COLUMNS[column]);
+                values[column] = value == null || value.isNull() ? null : value.asText();
+            }
+            return values;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+    }
+}
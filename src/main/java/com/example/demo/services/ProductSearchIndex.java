@@ -0,0 +1,607 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.ProductFacetsDto;
+import com.example.demo.entities.Product;
+import com.example.demo.events.ProductChangedEvent;
+import com.example.demo.events.ProductsImportedEvent;
+import com.example.demo.repositories.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory catalog search engine used in front of ProductRepo.findProductsByFilters.
+ * Every product gets a dense document number; filters are answered by intersecting
+ * bitset posting lists (name trigrams, keyword tokens, category, brand, active) and a
+ * sorted price array, so a search never touches the product table except to load the
+ * rows of the requested page by primary key.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final BitSet EMPTY = new BitSet(0);
+
+    // Natural order: document numbers are assigned in product id order
+    private static final Comparator<Doc> ID_ORDER = Comparator.comparingLong(doc -> doc.productId);
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded = false;
+
+    // Changes committed while a reload reads the product table, replayed after the swap
+    private final Object bufferLock = new Object();
+    private List<Runnable> buffered = null;
+
+    // Document storage, indexed by document number
+    private final List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Integer> docByProductId = new HashMap<>();
+
+    // Posting lists
+    private final Map<String, BitSet> nameTrigrams = new HashMap<>();
+    private final Map<String, BitSet> tokens = new HashMap<>();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final Map<String, BitSet> brands = new HashMap<>();
+    private final BitSet activeDocs = new BitSet();
+
+    // Price column sorted ascending, rebuilt lazily after writes
+    private double[] sortedPrices = new double[0];
+    private int[] sortedPriceDocs = new int[0];
+    private boolean pricesDirty = true;
+    private final Object priceLock = new Object();
+
+    /**
+     * Search active products with the same semantics as ProductRepo.findProductsByFilters,
+     * plus an optional keyword matched against name, description, brand and model tokens.
+     * Returns null when the requested sort cannot be served from the index, in which case
+     * the caller should fall back to the database query.
+     */
+    public Page<Product> search(String name, String keyword, Long categoryId, String brand,
+                                Double minPrice, Double maxPrice, Pageable pageable) {
+        Comparator<Doc> order = comparatorFor(pageable.getSort());
+        if (order == null) {
+            return null;
+        }
+        ensureLoaded();
+
+        List<Long> pageIds;
+        long total;
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(name, keyword, categoryId, brand, minPrice, maxPrice);
+            total = matches.cardinality();
+            pageIds = pageOf(matches, order, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new PageImpl<>(loadInOrder(pageIds), pageable, total);
+    }
+
+    /**
+     * Run a search and compute brand, category and price bucket counts for the whole
+     * result set. The counts come from a single pass over the matching documents.
+     *
+     * @param bucketBounds ascending price boundaries; bucket i covers [bounds[i], bounds[i+1])
+     *                     and the last bucket is open-ended
+     */
+    public ProductFacetsDto facets(String name, String keyword, Long categoryId, String brand,
+                                   Double minPrice, Double maxPrice, double[] bucketBounds,
+                                   Pageable pageable) {
+        Comparator<Doc> order = comparatorFor(pageable.getSort());
+        if (order == null) {
+            order = ID_ORDER;
+        }
+        ensureLoaded();
+
+        Map<String, Long> brandCounts = new HashMap<>();
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        long[] bucketCounts = new long[bucketBounds.length];
+        List<Long> pageIds;
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(name, keyword, categoryId, brand, minPrice, maxPrice);
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                Doc entry = docs.get(doc);
+                total++;
+                if (entry.brand != null) {
+                    brandCounts.merge(entry.brand, 1L, Long::sum);
+                }
+                if (entry.categoryId != null) {
+                    categoryCounts.merge(entry.categoryId, 1L, Long::sum);
+                }
+                int bucket = upperBound(bucketBounds, entry.price) - 1;
+                if (bucket >= 0) {
+                    bucketCounts[bucket]++;
+                }
+            }
+            pageIds = pageOf(matches, order, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProductFacetsDto.PriceBucket> buckets = new ArrayList<>(bucketBounds.length);
+        for (int i = 0; i < bucketBounds.length; i++) {
+            Double to = i + 1 < bucketBounds.length ? bucketBounds[i + 1] : null;
+            buckets.add(new ProductFacetsDto.PriceBucket(bucketBounds[i], to, bucketCounts[i]));
+        }
+
+        return new ProductFacetsDto(loadInOrder(pageIds), pageable.getPageNumber(), pageable.getPageSize(),
+                total, brandCounts, categoryCounts, buckets);
+    }
+
+    /**
+     * Compute the set of matching document numbers. Caller must hold the read lock.
+     */
+    BitSet filter(String name, String keyword, Long categoryId, String brand,
+                  Double minPrice, Double maxPrice) {
+        BitSet matches = (BitSet) activeDocs.clone();
+
+        if (categoryId != null) {
+            matches.and(categories.getOrDefault(categoryId, EMPTY));
+        }
+        if (brand != null) {
+            matches.and(brands.getOrDefault(brand, EMPTY));
+        }
+        if (minPrice != null || maxPrice != null) {
+            matches.and(priceRange(minPrice, maxPrice));
+        }
+        if (keyword != null) {
+            for (String token : tokenize(keyword)) {
+                matches.and(tokens.getOrDefault(token, EMPTY));
+            }
+        }
+        if (name != null) {
+            String needle = name.toLowerCase(Locale.ROOT);
+            // Narrow the candidates with trigram postings, then verify the substring match
+            for (String trigram : trigrams(needle)) {
+                matches.and(nameTrigrams.getOrDefault(trigram, EMPTY));
+            }
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                String docName = docs.get(doc).lowerName;
+                if (docName == null || !docName.contains(needle)) {
+                    matches.clear(doc);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Whether the index has been populated from the database.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Number of products currently held by the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the product table.
+     * Changes that commit while the table is read are buffered and replayed on top of the
+     * new documents, so they are not lost to a snapshot taken before they committed.
+     */
+    public synchronized void reload() {
+        synchronized (bufferLock) {
+            buffered = new ArrayList<>();
+        }
+        List<Product> products;
+        try {
+            products = productRepo.findAll(Sort.by("id"));
+        } catch (RuntimeException e) {
+            // Keep the current documents, with whatever arrived meanwhile
+            lock.writeLock().lock();
+            try {
+                replayBuffered();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            docByProductId.clear();
+            nameTrigrams.clear();
+            tokens.clear();
+            categories.clear();
+            brands.clear();
+            activeDocs.clear();
+            for (Product product : products) {
+                put(product);
+            }
+            replayBuffered();
+            pricesDirty = true;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace a single product
+     */
+    public void index(Product product) {
+        apply(() -> put(product));
+    }
+
+    /**
+     * Add or replace many products under one write lock
+     */
+    public void indexAll(Collection<Product> products) {
+        apply(() -> {
+            for (Product product : products) {
+                put(product);
+            }
+        });
+    }
+
+    /**
+     * Remove a product from the index
+     */
+    public void remove(Long productId) {
+        apply(() -> {
+            Integer doc = docByProductId.remove(productId);
+            if (doc != null) {
+                unpost(doc, docs.get(doc));
+                docs.set(doc, Doc.DELETED);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        indexAll(event.getProducts());
+    }
+
+    // Runs a change under the write lock, or queues it while a reload is reading the table
+    private void apply(Runnable change) {
+        synchronized (bufferLock) {
+            if (buffered != null) {
+                buffered.add(change);
+                return;
+            }
+        }
+        if (!loaded) {
+            // Committed before the initial load reads the table, which will pick it up
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.run();
+            pricesDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Must be called with the write lock held
+    private void replayBuffered() {
+        List<Runnable> changes;
+        synchronized (bufferLock) {
+            changes = buffered;
+            buffered = null;
+        }
+        changes.forEach(Runnable::run);
+        pricesDirty = true;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    // Must be called with the write lock held
+    private void put(Product product) {
+        Integer doc = docByProductId.get(product.getId());
+        if (doc != null) {
+            unpost(doc, docs.get(doc));
+        } else {
+            doc = docs.size();
+            docs.add(null);
+            docByProductId.put(product.getId(), doc);
+        }
+
+        Doc entry = new Doc(product);
+        docs.set(doc, entry);
+
+        for (String trigram : entry.trigrams) {
+            nameTrigrams.computeIfAbsent(trigram, k -> new BitSet()).set(doc);
+        }
+        for (String token : entry.tokens) {
+            tokens.computeIfAbsent(token, k -> new BitSet()).set(doc);
+        }
+        if (entry.categoryId != null) {
+            categories.computeIfAbsent(entry.categoryId, k -> new BitSet()).set(doc);
+        }
+        if (entry.brand != null) {
+            brands.computeIfAbsent(entry.brand, k -> new BitSet()).set(doc);
+        }
+        if (entry.active) {
+            activeDocs.set(doc);
+        }
+    }
+
+    // Must be called with the write lock held
+    private void unpost(int doc, Doc entry) {
+        for (String trigram : entry.trigrams) {
+            clear(nameTrigrams, trigram, doc);
+        }
+        for (String token : entry.tokens) {
+            clear(tokens, token, doc);
+        }
+        if (entry.categoryId != null) {
+            clear(categories, entry.categoryId, doc);
+        }
+        if (entry.brand != null) {
+            clear(brands, entry.brand, doc);
+        }
+        activeDocs.clear(doc);
+    }
+
+    private static <K> void clear(Map<K, BitSet> postings, K key, int doc) {
+        BitSet bits = postings.get(key);
+        if (bits != null) {
+            bits.clear(doc);
+            if (bits.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    // Called with the read lock held; concurrent readers rebuild the price column at most once.
+    private BitSet priceRange(Double minPrice, Double maxPrice) {
+        double[] prices;
+        int[] priceDocs;
+        synchronized (priceLock) {
+            if (pricesDirty) {
+                rebuildPrices();
+            }
+            prices = sortedPrices;
+            priceDocs = sortedPriceDocs;
+        }
+
+        int from = minPrice == null ? 0 : lowerBound(prices, minPrice);
+        int to = maxPrice == null ? prices.length : upperBound(prices, maxPrice);
+
+        BitSet range = new BitSet(docs.size());
+        for (int i = from; i < to; i++) {
+            range.set(priceDocs[i]);
+        }
+        return range;
+    }
+
+    private void rebuildPrices() {
+        Integer[] order = docByProductId.values().toArray(new Integer[0]);
+        Arrays.sort(order, Comparator.comparingDouble(doc -> docs.get(doc).price));
+
+        double[] prices = new double[order.length];
+        int[] priceDocs = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            priceDocs[i] = order[i];
+            prices[i] = docs.get(order[i]).price;
+        }
+        sortedPrices = prices;
+        sortedPriceDocs = priceDocs;
+        pricesDirty = false;
+    }
+
+    // First index whose price is >= value
+    private static int lowerBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index whose price is > value
+    private static int upperBound(double[] prices, double value) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Page through the matching documents. Caller must hold the read lock.
+     */
+    List<Long> pageOf(BitSet matches, Comparator<Doc> order, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<Long> ids = new ArrayList<>(size);
+
+        if (order == ID_ORDER) {
+            // Document numbers follow product id order, so the bitset is already sorted
+            int skipped = 0;
+            for (int doc = matches.nextSetBit(0); doc >= 0 && ids.size() < size; doc = matches.nextSetBit(doc + 1)) {
+                if (skipped++ >= offset) {
+                    ids.add(docs.get(doc).productId);
+                }
+            }
+            return ids;
+        }
+
+        List<Doc> sorted = new ArrayList<>(matches.cardinality());
+        for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+            sorted.add(docs.get(doc));
+        }
+        sorted.sort(order);
+        for (long i = offset; i < sorted.size() && ids.size() < size; i++) {
+            ids.add(sorted.get((int) i).productId);
+        }
+        return ids;
+    }
+
+    /**
+     * Load the page rows with one primary-key query, keeping the index order
+     */
+    List<Product> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepo.findAllById(ids)) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Map a Spring Data sort onto an in-memory comparator. Returns null for sorts the
+     * index cannot serve.
+     */
+    private static Comparator<Doc> comparatorFor(Sort sort) {
+        Sort.Order idOrder = sort.getOrderFor("id");
+        if (sort.isUnsorted() || (sort.stream().count() == 1 && idOrder != null && idOrder.isAscending())) {
+            return ID_ORDER;
+        }
+        Comparator<Doc> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Doc> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparingLong(doc -> doc.productId);
+                case "price" -> Comparator.comparingDouble(doc -> doc.price);
+                case "name" -> Comparator.comparing(doc -> doc.lowerName,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> null;
+            };
+            if (next == null) {
+                return null;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparingLong(doc -> doc.productId);
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    static Set<String> trigrams(String lowerText) {
+        Set<String> result = new HashSet<>();
+        if (lowerText == null) {
+            return result;
+        }
+        for (int i = 0; i + 3 <= lowerText.length(); i++) {
+            result.add(lowerText.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Immutable per-document snapshot of the indexed product fields
+     */
+    static final class Doc {
+        static final Doc DELETED = new Doc();
+
+        final long productId;
+        final String lowerName;
+        final Long categoryId;
+        final String brand;
+        final double price;
+        final boolean active;
+        final Set<String> trigrams;
+        final Set<String> tokens;
+
+        private Doc() {
+            this.productId = -1;
+            this.lowerName = null;
+            this.categoryId = null;
+            this.brand = null;
+            this.price = 0;
+            this.active = false;
+            this.trigrams = Set.of();
+            this.tokens = Set.of();
+        }
+
+        Doc(Product product) {
+            this.productId = product.getId();
+            this.lowerName = product.getName() == null ? null : product.getName().toLowerCase(Locale.ROOT);
+            this.categoryId = product.getCategory() == null ? null : product.getCategory().getId();
+            this.brand = product.getBrand();
+            this.price = product.getPrice();
+            this.active = product.isActive();
+            this.trigrams = trigrams(lowerName);
+
+            Set<String> words = tokenize(product.getName());
+            words.addAll(tokenize(product.getDescription()));
+            words.addAll(tokenize(product.getBrand()));
+            words.addAll(tokenize(product.getModel()));
+            this.tokens = words;
+        }
+    }
+}
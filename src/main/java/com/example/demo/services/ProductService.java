@@ -1,15 +1,26 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.ProductDetailDto;
+import com.example.demo.dto.ProductFacetsDto;
+import com.example.demo.dto.ProductSalesDto;
+import com.example.demo.dto.ProductSummaryDto;
+import com.example.demo.dto.SeekCursor;
 import com.example.demo.entities.Category;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.ProductImage;
 import com.example.demo.entities.ProductSpecification;
+import com.example.demo.events.ProductChangedEvent;
 import com.example.demo.exceptions.ResourceNotFoundException;
 import com.example.demo.repositories.CategoryRepo;
 import com.example.demo.repositories.ProductRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,6 +41,25 @@ public class ProductService {
     @Autowired
     private CategoryRepo categoryRepo;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private StoreMetrics metrics;
+
+    @Autowired
+    private SalesColumnStore salesStore;
+
+    // Default price facet boundaries
+    @Value("${store.search.price-buckets:0,50,100,250,500,1000}")
+    private double[] defaultPriceBuckets;
+
     // Directory for storing product images
     private final String UPLOAD_DIR = "./uploads/products/";
 
@@ -56,7 +86,7 @@ public class ProductService {
      * Get all active products (with pagination)
      */
     public Page<Product> getAllActive(Pageable pageable) {
-        return productRepo.findProductsByFilters(null, null, null, null, null, pageable);
+        return searchProducts(null, null, null, null, null, pageable);
     }
 
     /**
@@ -66,6 +96,46 @@ public class ProductService {
         return productRepo.findById(id);
     }
 
+    /**
+     * Get all products as list summaries (one query, no entity graph)
+     */
+    public List<ProductSummaryDto> getSummaries() {
+        return productRepo.findAllSummaries().stream().map(ProductService::toSummary).toList();
+    }
+
+    /**
+     * Get active products as list summaries (with pagination)
+     */
+    public Page<ProductSummaryDto> getActiveSummaries(Pageable pageable) {
+        return productRepo.findActiveSummaries(pageable).map(ProductService::toSummary);
+    }
+
+    /**
+     * Get the product page view: fields, category, images, specifications and rating summary
+     */
+    public Optional<ProductDetailDto> getDetail(Long id) {
+        List<Object[]> rows = productRepo.findDetailRows(id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        List<ProductDetailDto.Image> images = productRepo.findImageRows(id).stream()
+                .map(image -> new ProductDetailDto.Image((Long) image[0], (String) image[1], (Boolean) image[2]))
+                .toList();
+        List<ProductDetailDto.Specification> specifications = productRepo.findSpecificationRows(id).stream()
+                .map(spec -> new ProductDetailDto.Specification((Long) spec[0], (String) spec[1], (String) spec[2]))
+                .toList();
+        return Optional.of(new ProductDetailDto((Long) row[0], (String) row[1], (String) row[2], (Double) row[3],
+                (Integer) row[4], (String) row[5], (String) row[6], (Boolean) row[7], (Long) row[8], (String) row[9],
+                (LocalDateTime) row[10], (LocalDateTime) row[11], (Double) row[12], (Long) row[13],
+                images, specifications));
+    }
+
+    private static ProductSummaryDto toSummary(Object[] row) {
+        return new ProductSummaryDto((Long) row[0], (String) row[1], (Double) row[2], (Integer) row[3],
+                (String) row[4], (String) row[5], (Boolean) row[6], (Long) row[7], (String) row[8], (String) row[9]);
+    }
+
     /**
      * Get products by category ID (with pagination)
      */
@@ -73,6 +143,22 @@ public class ProductService {
         return productRepo.findByCategoryId(categoryId, pageable);
     }
 
+    /**
+     * Get products of a category and all its subcategories (with pagination)
+     */
+    public Page<Product> getByCategorySubtree(Long categoryId, Pageable pageable) {
+        return productRepo.findInCategorySubtree(categoryId, pageable);
+    }
+
+    /**
+     * Active products of a category and all its subcategories with keyset pagination by id
+     */
+    public CursorPageDto<Product> getByCategorySubtreeAfter(Long categoryId, String after, int size) {
+        long afterId = after == null ? 0L : SeekCursor.decode(after).getId();
+        Slice<Product> slice = productRepo.findInCategorySubtreeAfterId(categoryId, afterId, PageRequest.of(0, size));
+        return CursorPageDto.of(slice, product -> SeekCursor.of(product.getId(), product.getId()));
+    }
+
     /**
      * Search products by name (with pagination)
      */
@@ -85,9 +171,62 @@ public class ProductService {
      */
     public Page<Product> searchProducts(String name, Long categoryId, String brand,
                                         Double minPrice, Double maxPrice, Pageable pageable) {
+        return searchProducts(name, null, categoryId, brand, minPrice, maxPrice, pageable);
+    }
+
+    /**
+     * Advanced product search with filters and a free-text keyword.
+     * Served from the in-memory search index; falls back to the database query
+     * when the requested sort is not supported by the index.
+     */
+    public Page<Product> searchProducts(String name, String keyword, Long categoryId, String brand,
+                                        Double minPrice, Double maxPrice, Pageable pageable) {
+        Page<Product> result = productSearchIndex.search(name, keyword, categoryId, brand, minPrice, maxPrice, pageable);
+        if (result != null) {
+            return result;
+        }
         return productRepo.findProductsByFilters(name, categoryId, brand, minPrice, maxPrice, pageable);
     }
 
+    /**
+     * Search active products with keyset pagination.
+     * Supported sort keys are "id" and "price"; both break ties by id.
+     */
+    public CursorPageDto<Product> searchProductsAfter(String name, Long categoryId, String brand,
+                                                      Double minPrice, Double maxPrice,
+                                                      String sortBy, String after, int size) {
+        SeekCursor cursor = after == null ? null : SeekCursor.decode(after);
+        Pageable limit = PageRequest.of(0, size);
+
+        if ("price".equals(sortBy)) {
+            double afterPrice = cursor == null ? -Double.MAX_VALUE : cursor.keyAsDouble();
+            long afterId = cursor == null ? 0L : cursor.getId();
+            Slice<Product> slice = productRepo.findProductsByFiltersAfterPrice(
+                    name, categoryId, brand, minPrice, maxPrice, afterPrice, afterId, limit);
+            return CursorPageDto.of(slice, product -> SeekCursor.of(product.getPrice(), product.getId()));
+        }
+        if (!"id".equals(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort for cursor pagination: " + sortBy);
+        }
+
+        long afterId = cursor == null ? 0L : cursor.getId();
+        Slice<Product> slice = productRepo.findProductsByFiltersAfterId(
+                name, categoryId, brand, minPrice, maxPrice, afterId, limit);
+        return CursorPageDto.of(slice, product -> SeekCursor.of(product.getId(), product.getId()));
+    }
+
+    /**
+     * Search products and return brand, category and price bucket counts for the sidebar
+     */
+    public ProductFacetsDto searchWithFacets(String name, String keyword, Long categoryId, String brand,
+                                             Double minPrice, Double maxPrice, double[] priceBuckets,
+                                             Pageable pageable) {
+        // Sort a copy: the default boundaries are shared by concurrent requests
+        double[] bounds = (priceBuckets == null || priceBuckets.length == 0 ? defaultPriceBuckets : priceBuckets).clone();
+        Arrays.sort(bounds);
+        return productSearchIndex.facets(name, keyword, categoryId, brand, minPrice, maxPrice, bounds, pageable);
+    }
+
     /**
      * Get products by brand
      */
@@ -119,7 +258,10 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        metrics.productAdded();
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -147,7 +289,9 @@ public class ProductService {
             existingProduct.setCategory(category);
         }
 
-        return productRepo.save(existingProduct);
+        Product saved = productRepo.save(existingProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -176,7 +320,9 @@ public class ProductService {
                     .forEach(img -> img.setMain(false));
         }
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -190,7 +336,9 @@ public class ProductService {
         ProductSpecification spec = new ProductSpecification(product, specName, specValue);
         product.getSpecifications().add(spec);
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -207,7 +355,9 @@ public class ProductService {
                         .collect(Collectors.toList())
         );
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -221,7 +371,9 @@ public class ProductService {
         product.setActive(false);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -235,7 +387,9 @@ public class ProductService {
         product.setActive(true);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -244,6 +398,8 @@ public class ProductService {
     @Transactional
     public void delete(Long id) {
         productRepo.deleteById(id);
+        metrics.productRemoved();
+        eventPublisher.publishEvent(new ProductChangedEvent(id, null));
     }
 
     /**
@@ -278,7 +434,28 @@ public class ProductService {
      * Get popular products
      */
     public List<Product> getPopularProducts(int limit) {
-        return productRepo.findPopularProducts(limit);
+        if (!salesStore.isLoaded()) {
+            return productRepo.findPopularProducts(limit);
+        }
+        List<Long> ids = salesStore.topSelling(limit).stream().map(ProductSalesDto::getProductId).toList();
+        Map<Long, Product> products = new HashMap<>();
+        productRepo.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+        return ids.stream().map(products::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Get stock availability: on-hand quantity, units held by carts and available-to-promise
+     */
+    public Map<String, Object> getAvailability(Long id) {
+        Product product = productRepo.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+
+        Map<String, Object> availability = new HashMap<>();
+        availability.put("productId", product.getId());
+        availability.put("quantity", product.getQuantity());
+        availability.put("held", reservationService.heldQuantity(id));
+        availability.put("available", reservationService.availableToPromise(id, product.getQuantity()));
+        return availability;
     }
 
     /**
@@ -292,7 +469,9 @@ public class ProductService {
         product.setQuantity(newQuantity);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 
     /**
@@ -311,6 +490,8 @@ public class ProductService {
         product.setQuantity(newQuantity);
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepo.save(product);
+        Product saved = productRepo.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), saved));
+        return saved;
     }
 }
\ No newline at end of file
@@ -1,16 +1,21 @@
 package com.example.demo.services;
 
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.dto.SeekCursor;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.Review;
 import com.example.demo.entities.User;
+import com.example.demo.events.ProductDetailsChangedEvent;
 import com.example.demo.exceptions.ResourceNotFoundException;
 import com.example.demo.repositories.ProductRepo;
 import com.example.demo.repositories.ReviewRepo;
 import com.example.demo.repositories.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +30,9 @@ import java.util.Optional;
  */
 @Service
 public class ReviewService {
+    // Upper bound used as the cursor of the first keyset page
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private ReviewRepo reviewRepo;
 
@@ -34,6 +42,9 @@ public class ReviewService {
     @Autowired
     private ProductRepo productRepo;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all reviews (admin function)
      */
@@ -86,6 +97,23 @@ public class ReviewService {
 
 
 
+    /**
+     * Get approved reviews by product ID with keyset pagination, newest first
+     */
+    public CursorPageDto<Review> getApprovedByProductIdAfter(Long productId, String after, int size) {
+        LocalDateTime afterCreatedAt = MAX_CREATED_AT;
+        long afterId = Long.MAX_VALUE;
+        if (after != null) {
+            SeekCursor cursor = SeekCursor.decode(after);
+            afterCreatedAt = cursor.keyAsDateTime();
+            afterId = cursor.getId();
+        }
+
+        Slice<Review> slice = reviewRepo.findApprovedByProductIdAfter(productId, afterCreatedAt, afterId,
+                PageRequest.of(0, size));
+        return CursorPageDto.of(slice, review -> SeekCursor.of(review.getCreatedAt(), review.getId()));
+    }
+
     /**
      * Get reviews pending moderation (admin function)
      */
@@ -204,10 +232,8 @@ public class ReviewService {
 
         Review savedReview = reviewRepo.save(review);
 
-        // Update product's average rating if review was approved
-        if (approved) {
-            updateProductAverageRating(review.getProduct().getId());
-        }
+        // Approving adds the review to the product's rating, rejecting an approved one removes it
+        updateProductAverageRating(review.getProduct().getId());
 
         return savedReview;
     }
@@ -252,6 +278,7 @@ public class ReviewService {
         }
 
         reviewRepo.deleteByProductId(productId);
+        updateProductAverageRating(productId);
     }
 
     /**
@@ -269,22 +296,11 @@ public class ReviewService {
     }
 
     /**
-     * Update product's average rating calculation
+     * The rating summary is computed when the product page is read; tell the
+     * cached product pages that it changed
      */
     private void updateProductAverageRating(Long productId) {
-        // This method would update the product's average rating
-        // You would need to add an averageRating field to your Product entity
-        // This is left as an extension point for your implementation
-
-        // Example implementation:
-        /*
-        double avgRating = calculateAverageRating(productId);
-        Product product = productRepo.findById(productId).orElse(null);
-        if (product != null) {
-            product.setAverageRating(avgRating);
-            productRepo.save(product);
-        }
-        */
+        eventPublisher.publishEvent(new ProductDetailsChangedEvent(List.of(productId)));
     }
 
     /**
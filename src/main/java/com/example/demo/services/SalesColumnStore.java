@@ -0,0 +1,363 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.ProductSalesDto;
+import com.example.demo.dto.SalesColumnStatsDto;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory columnar copy of the order lines for sales reports.
+ * Each line is stored as four primitive columns (product code, quantity, unit price,
+ * order day) in fixed-size chunks, so a report is a tight loop over int/double arrays
+ * instead of a GROUP BY over order_items. Product ids are dictionary-encoded to dense
+ * codes, which lets the per-product totals live in plain arrays. Every chunk keeps the
+ * min/max order day it holds, and date-range reports skip chunks outside the range.
+ * <p>
+ * The store is append-only: committed orders append their lines, and deletions or edits
+ * append compensating lines with negative quantities. It is loaded from the database
+ * on startup and rebuilt periodically, which also picks up writes that bypass the
+ * services. A single writer appends under a lock; readers take no lock and only look at
+ * the rows a chunk has published.
+ */
+@Component
+public class SalesColumnStore {
+    static final int CHUNK_SIZE = 16_384;
+
+    // Order day of lines whose order has no date; never inside a date range
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final String LOAD_SQL =
+            "SELECT oi.product_id, oi.quantity, oi.unit_price, o.order_date " +
+                    "FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+                    "WHERE oi.product_id IS NOT NULL ORDER BY o.order_date";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Object writeLock = new Object();
+    private volatile Columns columns = new Columns();
+    private volatile boolean loaded;
+
+    // Lines committed while a rebuild scan runs; replayed onto the rebuilt columns
+    private List<Line> rebuildBuffer;
+
+    /**
+     * Append all lines of an order once the current transaction commits
+     */
+    public void record(Order order) {
+        appendAfterCommit(linesOf(order, 1));
+    }
+
+    /**
+     * Cancel out all lines of an order (e.g. a deleted order) once the current transaction commits
+     */
+    public void retract(Order order) {
+        appendAfterCommit(linesOf(order, -1));
+    }
+
+    /**
+     * Append a single line once the current transaction commits; a negative quantity
+     * cancels out a line recorded earlier
+     */
+    public void recordLine(long productId, int quantity, double unitPrice, LocalDate orderDate) {
+        appendAfterCommit(List.of(new Line(productId, quantity, unitPrice, toDay(orderDate))));
+    }
+
+    /**
+     * Whether the initial load finished; until then reports should go to the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Units sold and revenue per product, by product id
+     */
+    public List<ProductSalesDto> salesByProduct() {
+        Totals totals = aggregate(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        List<ProductSalesDto> result = new ArrayList<>();
+        for (int code = 0; code < totals.quantities.length; code++) {
+            if (totals.quantities[code] != 0) {
+                result.add(totals.toDto(code));
+            }
+        }
+        result.sort(Comparator.comparingLong(ProductSalesDto::getProductId));
+        return result;
+    }
+
+    /**
+     * The products with the most units sold, best seller first
+     */
+    public List<ProductSalesDto> topSelling(int limit) {
+        Totals totals = aggregate(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return top(totals, limit);
+    }
+
+    /**
+     * Units sold and revenue per product for orders dated within the range (inclusive),
+     * most units first
+     */
+    public List<ProductSalesDto> salesInDateRange(LocalDate startDate, LocalDate endDate) {
+        Totals totals = aggregate((int) startDate.toEpochDay(), (int) endDate.toEpochDay());
+        return top(totals, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Line count and memory held by the columns
+     */
+    public SalesColumnStatsDto stats() {
+        Columns current = columns;
+        Chunk[] chunks = current.chunks;
+        long lines = 0;
+        for (Chunk chunk : chunks) {
+            lines += chunk.size;
+        }
+        long bytes = (long) chunks.length * Chunk.BYTES + current.dictionaryBytes();
+        return new SalesColumnStatsDto(lines, chunks.length, current.productCount, bytes,
+                lines == 0 ? 0 : (double) bytes / lines, loaded);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Reload the columns from the database.
+     * Lines committed during the scan are buffered and replayed onto the new columns; a
+     * line whose commit straddles the start of the scan may be counted twice until the
+     * next rebuild.
+     */
+    @Scheduled(fixedDelayString = "${store.analytics.rebuild-ms:3600000}", initialDelayString = "${store.analytics.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            rebuildBuffer = new ArrayList<>();
+        }
+        Columns fresh = new Columns();
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                Date orderDate = rs.getDate(4);
+                fresh.append(rs.getLong(1), rs.getInt(2), rs.getDouble(3),
+                        orderDate == null ? NO_DATE : (int) orderDate.toLocalDate().toEpochDay());
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                rebuildBuffer = null;
+            }
+            throw e;
+        }
+        synchronized (writeLock) {
+            for (Line line : rebuildBuffer) {
+                fresh.append(line);
+            }
+            rebuildBuffer = null;
+            columns = fresh;
+        }
+        loaded = true;
+    }
+
+    // Package-private so tests can fill the store without a transaction
+    void append(List<Line> lines) {
+        synchronized (writeLock) {
+            Columns current = columns;
+            for (Line line : lines) {
+                current.append(line);
+            }
+            if (rebuildBuffer != null) {
+                rebuildBuffer.addAll(lines);
+            }
+        }
+    }
+
+    private void appendAfterCommit(List<Line> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(lines);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(lines);
+            }
+        });
+    }
+
+    private Totals aggregate(int fromDay, int toDay) {
+        Columns current = columns;
+        Chunk[] chunks = current.chunks;
+        int[] sizes = new int[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            sizes[i] = chunks[i].size;
+        }
+        // Read after the chunk sizes, so it covers every code in the published rows
+        long[] productIds = current.productIds;
+        long[] quantities = new long[productIds.length];
+        double[] revenue = new double[productIds.length];
+
+        boolean allDates = fromDay == Integer.MIN_VALUE && toDay == Integer.MAX_VALUE;
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            int size = sizes[c];
+            int[] codes = chunk.productCodes;
+            int[] qty = chunk.quantities;
+            double[] prices = chunk.unitPrices;
+            int[] days = chunk.orderDays;
+
+            if (allDates || (chunk.minDay >= fromDay && chunk.maxDay <= toDay)) {
+                for (int i = 0; i < size; i++) {
+                    int code = codes[i];
+                    quantities[code] += qty[i];
+                    revenue[code] += qty[i] * prices[i];
+                }
+            } else if (chunk.maxDay >= fromDay && chunk.minDay <= toDay) {
+                for (int i = 0; i < size; i++) {
+                    int day = days[i];
+                    if (day >= fromDay && day <= toDay) {
+                        int code = codes[i];
+                        quantities[code] += qty[i];
+                        revenue[code] += qty[i] * prices[i];
+                    }
+                }
+            }
+        }
+        return new Totals(productIds, quantities, revenue);
+    }
+
+    // Top entries by quantity through a bounded min-heap of product codes
+    private static List<ProductSalesDto> top(Totals totals, int limit) {
+        Comparator<Integer> byQuantity = Comparator.<Integer>comparingLong(code -> totals.quantities[code])
+                .thenComparing(code -> -totals.productIds[code]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(byQuantity);
+        for (int code = 0; code < totals.quantities.length; code++) {
+            if (totals.quantities[code] <= 0) {
+                continue;
+            }
+            heap.add(code);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<ProductSalesDto> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(totals.toDto(heap.poll()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private static List<Line> linesOf(Order order, int sign) {
+        int day = toDay(order.getOrderDate());
+        List<Line> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() != null) {
+                lines.add(new Line(item.getProduct().getId(), sign * item.getQuantity(), item.getUnitPrice(), day));
+            }
+        }
+        return lines;
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    record Line(long productId, int quantity, double unitPrice, int orderDay) {
+    }
+
+    private record Totals(long[] productIds, long[] quantities, double[] revenue) {
+        ProductSalesDto toDto(int code) {
+            return new ProductSalesDto(productIds[code], quantities[code], revenue[code]);
+        }
+    }
+
+    // One generation of the store; mutated only under the write lock
+    private static final class Columns {
+        private volatile Chunk[] chunks = {new Chunk()};
+        private volatile long[] productIds = new long[64];
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private int productCount;
+
+        void append(Line line) {
+            append(line.productId(), line.quantity(), line.unitPrice(), line.orderDay());
+        }
+
+        void append(long productId, int quantity, double unitPrice, int orderDay) {
+            int code = codeOf(productId);
+            Chunk chunk = chunks[chunks.length - 1];
+            if (chunk.size == CHUNK_SIZE) {
+                chunk = new Chunk();
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[grown.length - 1] = chunk;
+                chunks = grown;
+            }
+            chunk.add(code, quantity, unitPrice, orderDay);
+        }
+
+        private int codeOf(long productId) {
+            Integer code = codes.get(productId);
+            if (code != null) {
+                return code;
+            }
+            int next = productCount;
+            if (next == productIds.length) {
+                productIds = Arrays.copyOf(productIds, next * 2);
+            }
+            // Published together with the chunk row that first uses the code
+            productIds[next] = productId;
+            codes.put(productId, next);
+            productCount++;
+            return next;
+        }
+
+        // Code array plus an estimate of ~64 bytes per HashMap entry (node, boxed key and value)
+        long dictionaryBytes() {
+            return 16L + 8L * productIds.length + 64L * productCount;
+        }
+    }
+
+    private static final class Chunk {
+        // Four column arrays with their headers plus the chunk object itself
+        static final long BYTES = (4L + 4 + 8 + 4) * CHUNK_SIZE + 4 * 16 + 48;
+
+        final int[] productCodes = new int[CHUNK_SIZE];
+        final int[] quantities = new int[CHUNK_SIZE];
+        final double[] unitPrices = new double[CHUNK_SIZE];
+        final int[] orderDays = new int[CHUNK_SIZE];
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        // Rows below size are fully written; the volatile write publishes them to readers
+        volatile int size;
+
+        void add(int code, int quantity, double unitPrice, int orderDay) {
+            int i = size;
+            productCodes[i] = code;
+            quantities[i] = quantity;
+            unitPrices[i] = unitPrice;
+            orderDays[i] = orderDay;
+            minDay = Math.min(minDay, orderDay);
+            maxDay = Math.max(maxDay, orderDay);
+            size = i + 1;
+        }
+    }
+}
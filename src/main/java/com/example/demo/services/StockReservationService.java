@@ -0,0 +1,263 @@
+package com.example.demo.services;
+
+import com.example.demo.exceptions.InsufficientInventoryException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time-bounded stock holds for carts.
+ * A hold promises units of a product to one owner (e.g. "cart:42") until it expires or is
+ * released. Per-SKU held totals live in memory, so available-to-promise is simply
+ * product quantity minus active holds. Expiry is driven by a timer wheel advanced by a
+ * single scheduled tick instead of one scheduled task per hold.
+ * Holds and releases made inside a transaction take effect at once, so the availability
+ * check stays atomic, and are put back if that transaction rolls back.
+ */
+@Service
+public class StockReservationService {
+    private final Duration ttl;
+
+    private final ConcurrentHashMap<HoldKey, Hold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> heldBySku = new ConcurrentHashMap<>();
+    private final TimerWheel<Hold> wheel;
+
+    public StockReservationService(@Value("${store.reservation.ttl:PT15M}") Duration ttl,
+                                   @Value("${store.reservation.tick-ms:1000}") long tickMillis,
+                                   @Value("${store.reservation.wheel-size:512}") int wheelSize) {
+        this.ttl = ttl;
+        this.wheel = new TimerWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Owner key used for cart holds
+     */
+    public static String cartOwner(Long cartId) {
+        return "cart:" + cartId;
+    }
+
+    /**
+     * Set the hold of an owner on a product to the given quantity, refreshing its TTL.
+     * Inside a transaction the previous hold is restored if the transaction rolls back.
+     *
+     * @param stockQuantity current Product.quantity
+     * @throws InsufficientInventoryException if the additional units are not available to promise
+     */
+    public void hold(String owner, Long productId, int quantity, int stockQuantity) {
+        if (quantity <= 0) {
+            release(owner, productId);
+            return;
+        }
+        HoldKey key = new HoldKey(owner, productId);
+        AtomicInteger held = heldBySku.computeIfAbsent(productId, id -> new AtomicInteger());
+        int[] previousQuantity = new int[1];
+
+        Hold hold = holds.compute(key, (k, previous) -> {
+            int delta = quantity - (previous == null ? 0 : previous.quantity);
+            while (true) {
+                int current = held.get();
+                if (delta > 0 && stockQuantity - current < delta) {
+                    throw new InsufficientInventoryException(
+                            "Not enough inventory for product id: " + productId +
+                                    ". Available: " + Math.max(0, stockQuantity - current + (quantity - delta)) +
+                                    ", Requested: " + quantity);
+                }
+                if (held.compareAndSet(current, current + delta)) {
+                    break;
+                }
+            }
+            if (previous != null) {
+                previous.timeout.cancel();
+                previousQuantity[0] = previous.quantity;
+            }
+            return schedule(new Hold(key, quantity));
+        });
+        undoOnRollback(key, previousQuantity[0], hold);
+    }
+
+    /**
+     * Release the hold of an owner on a product.
+     * Inside a transaction the hold is restored if the transaction rolls back.
+     */
+    public void release(String owner, Long productId) {
+        HoldKey key = new HoldKey(owner, productId);
+        Hold hold = remove(key);
+        if (hold != null) {
+            undoOnRollback(key, hold.quantity, null);
+        }
+    }
+
+    /**
+     * Release every hold of an owner
+     */
+    public void releaseAll(String owner) {
+        for (HoldKey key : keysOf(owner)) {
+            release(owner, key.productId);
+        }
+    }
+
+    /**
+     * Release the hold of an owner on a product once the current transaction commits,
+     * or immediately when there is no transaction
+     */
+    public void releaseAfterCommit(String owner, Long productId) {
+        afterCommit(() -> remove(new HoldKey(owner, productId)));
+    }
+
+    /**
+     * Release every hold of an owner once the current transaction commits,
+     * or immediately when there is no transaction
+     */
+    public void releaseAllAfterCommit(String owner) {
+        afterCommit(() -> keysOf(owner).forEach(this::remove));
+    }
+
+    /**
+     * Units of a product currently held by all owners
+     */
+    public int heldQuantity(Long productId) {
+        AtomicInteger held = heldBySku.get(productId);
+        return held == null ? 0 : held.get();
+    }
+
+    /**
+     * Units of a product held by one owner
+     */
+    public int heldQuantity(String owner, Long productId) {
+        Hold hold = holds.get(new HoldKey(owner, productId));
+        return hold == null ? 0 : hold.quantity;
+    }
+
+    /**
+     * Available-to-promise: stock minus active holds
+     */
+    public int availableToPromise(Long productId, int stockQuantity) {
+        return Math.max(0, stockQuantity - heldQuantity(productId));
+    }
+
+    /**
+     * Available-to-promise for an owner, counting the owner's own hold as available
+     */
+    public int availableToPromise(String owner, Long productId, int stockQuantity) {
+        return Math.max(0, stockQuantity - heldQuantity(productId) + heldQuantity(owner, productId));
+    }
+
+    /**
+     * Snapshot of held units per product
+     */
+    public Map<Long, Integer> heldBySku() {
+        Map<Long, Integer> snapshot = new HashMap<>();
+        heldBySku.forEach((productId, held) -> {
+            if (held.get() > 0) {
+                snapshot.put(productId, held.get());
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Advance the timer wheel and release holds that have expired
+     */
+    @Scheduled(fixedRateString = "${store.reservation.tick-ms:1000}")
+    public void sweepExpired() {
+        wheel.advance(System.currentTimeMillis(), this::expire);
+    }
+
+    private List<HoldKey> keysOf(String owner) {
+        return holds.keySet().stream()
+                .filter(key -> key.owner.equals(owner))
+                .toList();
+    }
+
+    private Hold remove(HoldKey key) {
+        Hold hold = holds.remove(key);
+        if (hold != null) {
+            hold.timeout.cancel();
+            heldBySku.get(key.productId).addAndGet(-hold.quantity);
+        }
+        return hold;
+    }
+
+    private Hold schedule(Hold hold) {
+        hold.timeout = wheel.schedule(hold, System.currentTimeMillis() + ttl.toMillis());
+        return hold;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // On rollback, put the hold back to the given quantity unless it changed again since
+    private void undoOnRollback(HoldKey key, int quantity, Hold changed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    restore(key, quantity, changed);
+                }
+            }
+        });
+    }
+
+    private void restore(HoldKey key, int quantity, Hold changed) {
+        holds.compute(key, (k, current) -> {
+            if (current != changed) {
+                return current;
+            }
+            int currentQuantity = 0;
+            if (current != null) {
+                current.timeout.cancel();
+                currentQuantity = current.quantity;
+            }
+            heldBySku.computeIfAbsent(key.productId, id -> new AtomicInteger()).addAndGet(quantity - currentQuantity);
+            return quantity > 0 ? schedule(new Hold(key, quantity)) : null;
+        });
+    }
+
+    private void expire(Hold hold) {
+        // Only release if the hold was not refreshed or released in the meantime
+        if (holds.remove(hold.key, hold)) {
+            heldBySku.get(hold.key.productId).addAndGet(-hold.quantity);
+        }
+    }
+
+    private record HoldKey(String owner, Long productId) {
+        HoldKey {
+            Objects.requireNonNull(owner);
+            Objects.requireNonNull(productId);
+        }
+    }
+
+    private static final class Hold {
+        final HoldKey key;
+        final int quantity;
+        TimerWheel.Timeout<Hold> timeout;
+
+        Hold(HoldKey key, int quantity) {
+            this.key = key;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.OrderRepo;
+import com.example.demo.repositories.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for the admin dashboard.
+ * Order counts and revenue per status, product count and active cart count are kept in
+ * LongAdders, updated by the service methods that change them once their transaction
+ * commits. A periodic reconciliation against the database corrects drift that persists
+ * (e.g. writes that bypass the services), so reading the dashboard never touches the
+ * database.
+ */
+@Component
+public class StoreMetrics {
+    // Orders in these statuses do not count towards revenue
+    private static final Set<StatusOrder> NON_REVENUE = EnumSet.of(StatusOrder.CANCELLED, StatusOrder.RETURNED);
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    private final Map<StatusOrder, LongAdder> ordersByStatus;
+    // Revenue in cents, so the sums stay exact
+    private final Map<StatusOrder, LongAdder> revenueCentsByStatus;
+    private final LongAdder products = new LongAdder();
+    private final LongAdder activeCarts = new LongAdder();
+    // Drift seen by the last reconcile, per counter, waiting for the next one to confirm it
+    private final Map<LongAdder, Long> pendingDrift = new IdentityHashMap<>();
+
+    public StoreMetrics() {
+        Map<StatusOrder, LongAdder> orders = new EnumMap<>(StatusOrder.class);
+        Map<StatusOrder, LongAdder> revenue = new EnumMap<>(StatusOrder.class);
+        for (StatusOrder status : StatusOrder.values()) {
+            orders.put(status, new LongAdder());
+            revenue.put(status, new LongAdder());
+        }
+        this.ordersByStatus = Collections.unmodifiableMap(orders);
+        this.revenueCentsByStatus = Collections.unmodifiableMap(revenue);
+    }
+
+    public void orderCreated(StatusOrder status, double totalAmount) {
+        long cents = toCents(totalAmount);
+        afterCommit(() -> {
+            ordersByStatus.get(status).increment();
+            revenueCentsByStatus.get(status).add(cents);
+        });
+    }
+
+    public void orderDeleted(StatusOrder status, double totalAmount) {
+        long cents = toCents(totalAmount);
+        afterCommit(() -> {
+            ordersByStatus.get(status).decrement();
+            revenueCentsByStatus.get(status).add(-cents);
+        });
+    }
+
+    public void orderStatusChanged(StatusOrder from, StatusOrder to, double totalAmount) {
+        long cents = toCents(totalAmount);
+        afterCommit(() -> {
+            ordersByStatus.get(from).decrement();
+            ordersByStatus.get(to).increment();
+            revenueCentsByStatus.get(from).add(-cents);
+            revenueCentsByStatus.get(to).add(cents);
+        });
+    }
+
+    public void productAdded() {
+        afterCommit(products::increment);
+    }
+
+    public void productsAdded(long count) {
+        afterCommit(() -> products.add(count));
+    }
+
+    public void productRemoved() {
+        afterCommit(products::decrement);
+    }
+
+    public void cartActivated() {
+        afterCommit(activeCarts::increment);
+    }
+
+    public void cartDeactivated() {
+        afterCommit(activeCarts::decrement);
+    }
+
+    public long orderCount(StatusOrder status) {
+        return ordersByStatus.get(status).sum();
+    }
+
+    public long totalOrders() {
+        long total = 0;
+        for (LongAdder count : ordersByStatus.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    public Map<StatusOrder, Long> orderCountsByStatus() {
+        Map<StatusOrder, Long> counts = new EnumMap<>(StatusOrder.class);
+        ordersByStatus.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    public double revenue(StatusOrder status) {
+        return revenueCentsByStatus.get(status).sum() / 100.0;
+    }
+
+    /**
+     * Revenue of all orders that were not cancelled or returned
+     */
+    public double totalRevenue() {
+        long cents = 0;
+        for (Map.Entry<StatusOrder, LongAdder> entry : revenueCentsByStatus.entrySet()) {
+            if (!NON_REVENUE.contains(entry.getKey())) {
+                cents += entry.getValue().sum();
+            }
+        }
+        return cents / 100.0;
+    }
+
+    public long productCount() {
+        return products.sum();
+    }
+
+    public long activeCartCount() {
+        return activeCarts.sum();
+    }
+
+    /**
+     * Load the counters from the database once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        pendingDrift.clear();
+        reconcile(false);
+    }
+
+    /**
+     * Correct drift from the database. An update that commits after the database read but
+     * before the comparison shows up as a one-off difference, so a counter is only corrected
+     * when two consecutive runs see the same drift, and then by that drift rather than set
+     * to the value read.
+     */
+    @Scheduled(fixedDelayString = "${store.metrics.reconcile-ms:60000}", initialDelayString = "${store.metrics.reconcile-ms:60000}")
+    public synchronized void reconcile() {
+        reconcile(true);
+    }
+
+    private void reconcile(boolean confirmDrift) {
+        Map<StatusOrder, Long> counts = new HashMap<>();
+        for (Object[] row : orderRepo.countOrdersByStatus()) {
+            counts.put((StatusOrder) row[0], (Long) row[1]);
+        }
+        Map<StatusOrder, Long> revenueCents = new HashMap<>();
+        for (Object[] row : orderRepo.sumOrderAmountsByStatus()) {
+            revenueCents.put((StatusOrder) row[0], toCents(((Number) row[1]).doubleValue()));
+        }
+        for (StatusOrder status : StatusOrder.values()) {
+            align(ordersByStatus.get(status), counts.getOrDefault(status, 0L), confirmDrift);
+            align(revenueCentsByStatus.get(status), revenueCents.getOrDefault(status, 0L), confirmDrift);
+        }
+        align(products, productRepo.count(), confirmDrift);
+        align(activeCarts, cartRepo.countByActiveTrue(), confirmDrift);
+    }
+
+    private void align(LongAdder adder, long actual, boolean confirmDrift) {
+        long drift = actual - adder.sum();
+        Long previous = pendingDrift.remove(adder);
+        if (drift == 0) {
+            return;
+        }
+        if (!confirmDrift || previous != null && previous == drift) {
+            adder.add(drift);
+        } else {
+            pendingDrift.put(adder, drift);
+        }
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // Counters only reflect committed changes
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: timeouts are dropped into one of a fixed number of buckets by
+ * deadline tick, and a single driver thread calls advance() once per tick to expire the
+ * entries of the buckets it passes. Scheduling and cancelling are O(1) and no per-entry
+ * scheduled task is created, no matter how many timeouts are pending.
+ */
+class TimerWheel<T> {
+    private final long tickMillis;
+    private final long startMillis;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final int mask;
+
+    // Last tick whose bucket has been processed; only written by the driver thread
+    private volatile long processedTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = nowMillis;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = wheelSize - 1;
+        this.processedTick = 0;
+    }
+
+    /**
+     * Schedule an item to expire at the given wall-clock time
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        long tick = Math.max(tickOf(deadlineMillis), processedTick + 1);
+        while (true) {
+            ArrayDeque<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                // advance() may have passed this bucket since processedTick was read
+                if (tick > processedTick) {
+                    Timeout<T> timeout = new Timeout<>(item, tick);
+                    bucket.add(timeout);
+                    return timeout;
+                }
+            }
+            tick = processedTick + 1;
+        }
+    }
+
+    /**
+     * Expire everything that is due at the given time. Must be called from a single thread.
+     */
+    void advance(long nowMillis, Consumer<T> onExpire) {
+        long nowTick = tickOf(nowMillis);
+        List<T> expired = new ArrayList<>();
+        for (long tick = processedTick + 1; tick <= nowTick; tick++) {
+            ArrayDeque<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            synchronized (bucket) {
+                Iterator<Timeout<T>> it = bucket.iterator();
+                while (it.hasNext()) {
+                    Timeout<T> timeout = it.next();
+                    if (timeout.cancelled) {
+                        it.remove();
+                    } else if (timeout.deadlineTick <= tick) {
+                        it.remove();
+                        expired.add(timeout.item);
+                    }
+                }
+                // Published under the bucket lock, so schedule() sees it before adding here
+                processedTick = tick;
+            }
+        }
+        expired.forEach(onExpire);
+    }
+
+    private long tickOf(long millis) {
+        return (millis - startMillis + tickMillis - 1) / tickMillis;
+    }
+
+    static final class Timeout<T> {
+        final T item;
+        final long deadlineTick;
+        volatile boolean cancelled;
+
+        Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
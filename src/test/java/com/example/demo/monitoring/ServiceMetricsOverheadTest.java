@@ -0,0 +1,169 @@
+package com.example.demo.monitoring;
+
+import com.example.demo.exceptions.InvalidOrderStateException;
+import com.example.demo.exceptions.ResourceNotFoundException;
+import com.example.demo.services.CartService;
+import com.example.demo.services.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that service calls show up in the Prometheus scrape with their outcome and the
+ * SLO buckets only, that failure timers appear only once that outcome happens, and that
+ * the timing interceptor allocates nothing per successful call.
+ */
+// Tests use a simple registry unless metrics export is switched back on
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:servicemetricsdb")
+class ServiceMetricsOverheadTest {
+    private static final int WARMUP = 200_000;
+    private static final int CALLS = 2_000_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusRegistry;
+
+    @Test
+    void serviceCallsAreScraped() {
+        productService.getSummaries();
+        assertThrows(ResourceNotFoundException.class, () -> cartService.createCartForUser("nobody@example.com"));
+
+        String scrape = prometheusRegistry.scrape();
+        assertTrue(scrape.contains("store_service_seconds_bucket{class=\"ProductService\",method=\"getSummaries\",outcome=\"success\""), scrape);
+        assertTrue(scrape.contains("store_service_seconds_count{class=\"CartService\",method=\"createCartForUser\",outcome=\"ResourceNotFoundException\"} 1"), scrape);
+        assertTrue(scrape.contains("store_checkout_items_count"), scrape);
+        // A few SLO buckets per series, and outcomes that never happened are absent
+        long buckets = scrape.lines()
+                .filter(line -> line.startsWith("store_service_seconds_bucket{class=\"ProductService\",method=\"getSummaries\",outcome=\"success\""))
+                .count();
+        assertTrue(buckets > 0 && buckets <= 12, "buckets per series: " + buckets);
+        assertFalse(scrape.contains("method=\"getSummaries\",outcome=\"error\""), scrape);
+    }
+
+    @Test
+    void failureTimersAreRegisteredOnFirstFailure() throws Throwable {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ServiceTimingInterceptor interceptor = new ServiceTimingInterceptor(provider(registry));
+        Method method = Object.class.getMethod("toString");
+
+        interceptor.invoke(new StubInvocation(method, "ok"));
+        assertEquals(1, registry.find(ServiceTimingInterceptor.TIMER).timers().size());
+
+        MethodInvocation failing = new StubInvocation(method, null) {
+            @Override
+            public Object proceed() {
+                throw new InvalidOrderStateException("Invalid status transition");
+            }
+        };
+        assertThrows(InvalidOrderStateException.class, () -> interceptor.invoke(failing));
+        assertThrows(InvalidOrderStateException.class, () -> interceptor.invoke(failing));
+        assertNotNull(registry.find(ServiceTimingInterceptor.TIMER).tag("outcome", "InvalidOrderStateException").timer());
+        assertEquals(2, registry.get(ServiceTimingInterceptor.TIMER).tag("outcome", "InvalidOrderStateException").timer().count());
+        assertNull(registry.find(ServiceTimingInterceptor.TIMER).tag("outcome", "error").timer());
+    }
+
+    @Test
+    void fastPathDoesNotAllocate() throws Throwable {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ServiceTimingInterceptor interceptor = new ServiceTimingInterceptor(provider(registry));
+        Object result = new Object();
+        MethodInvocation invocation = new StubInvocation(Object.class.getMethod("hashCode"), result);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int i = 0; i < WARMUP; i++) {
+            interceptor.invoke(invocation);
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CALLS; i++) {
+            interceptor.invoke(invocation);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertEquals(CALLS + WARMUP, (long) registry.get(ServiceTimingInterceptor.TIMER)
+                .tags("class", "Object", "method", "hashCode", "outcome", "success").timer().count());
+        // A few bytes of slack for the allocation counter itself
+        assertTrue(allocated < 1024, "interceptor allocated " + allocated + " bytes");
+    }
+
+    private static ObjectProvider<MeterRegistry> provider(MeterRegistry registry) {
+        return new ObjectProvider<>() {
+            @Override
+            public MeterRegistry getObject() {
+                return registry;
+            }
+
+            @Override
+            public MeterRegistry getObject(Object... args) {
+                return registry;
+            }
+
+            @Override
+            public MeterRegistry getIfAvailable() {
+                return registry;
+            }
+
+            @Override
+            public MeterRegistry getIfUnique() {
+                return registry;
+            }
+        };
+    }
+
+    private static class StubInvocation implements MethodInvocation {
+        private final Method method;
+        private final Object result;
+
+        StubInvocation(Method method, Object result) {
+            this.method = method;
+            this.result = result;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return new Object[0];
+        }
+
+        @Override
+        public Object proceed() {
+            return result;
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
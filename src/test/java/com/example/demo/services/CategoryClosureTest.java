@@ -0,0 +1,184 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.CategoryNodeDto;
+import com.example.demo.dto.CursorPageDto;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.CategoryClosure;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CategoryClosureRepo;
+import com.example.demo.repositories.ProductRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Category closure table: after adds, re-parenting, bulk moves and deletes it holds exactly
+ * the ancestor/descendant pairs of the parent links (compared with the in-memory tree and
+ * with a full rebuild), and a subtree product listing costs one statement per page.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:categoryclosuredb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CategoryClosureTest {
+    private static final int ROOTS = 4;
+    private static final int FANOUT = 2;
+    private static final int LEVELS = 3;
+    private static final int PRODUCTS_PER_CATEGORY = 5;
+    private static final int PAGE_SIZE = 25;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryClosureService categoryClosureService;
+
+    @Autowired
+    private CategoryClosureRepo categoryClosureRepo;
+
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Category> categories = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        List<Category> level = new ArrayList<>();
+        for (int i = 0; i < ROOTS; i++) {
+            level.add(categoryService.add(new Category("Closure root " + i, "Top-level category")));
+        }
+        categories.addAll(level);
+        for (int depth = 1; depth < LEVELS; depth++) {
+            List<Category> next = new ArrayList<>();
+            for (Category parent : level) {
+                for (int i = 0; i < FANOUT; i++) {
+                    Category child = new Category(parent.getName() + "/" + i, "Level " + depth);
+                    child.setParent(parent);
+                    next.add(categoryService.add(child));
+                }
+            }
+            level = next;
+            categories.addAll(level);
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (Category category : categories) {
+            for (int i = 0; i < PRODUCTS_PER_CATEGORY; i++) {
+                Product product = new Product(category.getName() + " item " + i, "Description", 10 + i, category, 100,
+                        "Brand " + i, category.getId() + "-" + i);
+                product.setActive(i != 0);
+                products.add(product);
+            }
+        }
+        productRepo.saveAll(products);
+    }
+
+    @Test
+    void closureFollowsEveryKindOfTreeChange() {
+        assertEquals(expectedPairs(), actualPairs());
+
+        // Re-parent one subtree under another root
+        Category moved = categories.get(ROOTS);
+        Category update = new Category(moved.getName(), moved.getDescription());
+        update.setParent(categories.get(1));
+        categoryService.update(moved.getId(), update);
+        assertEquals(expectedPairs(), actualPairs());
+
+        // Promote it to a top-level category
+        categoryService.update(moved.getId(), new Category(moved.getName(), moved.getDescription()));
+        assertEquals(expectedPairs(), actualPairs());
+
+        // Bulk move all children of one root under a leaf of another
+        Category leaf = categories.get(categories.size() - 1);
+        categoryService.moveSubcategories(categories.get(2).getId(), leaf.getId());
+        assertEquals(expectedPairs(), actualPairs());
+        // ...and back again
+        categoryService.moveSubcategories(leaf.getId(), categories.get(2).getId());
+        assertEquals(expectedPairs(), actualPairs());
+
+        // Add and delete a category
+        Category extra = new Category("Closure extra", "Short-lived");
+        extra.setParent(leaf);
+        extra = categoryService.add(extra);
+        assertEquals(expectedPairs(), actualPairs());
+        categoryService.delete(extra.getId());
+        assertEquals(expectedPairs(), actualPairs());
+
+        // Incremental maintenance ends where a full rebuild from the parent links does
+        Set<String> maintained = actualPairs();
+        categoryClosureService.rebuild();
+        assertEquals(maintained, actualPairs());
+    }
+
+    @Test
+    void subtreeListingIsOneStatementPerPage() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Long rootId = categories.get(ROOTS - 1).getId();
+        Set<Long> subtree = new HashSet<>(categoryTree.current().subtreeIds(rootId));
+        List<Long> expected = productRepo.findAll().stream()
+                .filter(product -> product.isActive() && subtree.contains(product.getCategory().getId()))
+                .map(Product::getId)
+                .sorted()
+                .toList();
+
+        List<Long> listed = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        long statementsBefore = statistics.getPrepareStatementCount();
+        do {
+            CursorPageDto<Product> page = productService.getByCategorySubtreeAfter(rootId, after, PAGE_SIZE);
+            page.getContent().forEach(product -> listed.add(product.getId()));
+            after = page.isHasNext() ? page.getNextCursor() : null;
+            pages++;
+        } while (after != null);
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+
+        assertEquals(expected, listed);
+        assertEquals(pages, statements);
+        // The paged variant counts inactive products too
+        assertEquals(subtree.size() * PRODUCTS_PER_CATEGORY,
+                productRepo.findInCategorySubtree(rootId, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    // "ancestor>descendant@depth" for every pair implied by the current parent links
+    private Set<String> expectedPairs() {
+        CategoryTree.Snapshot tree = categoryTree.current();
+        Set<String> pairs = new HashSet<>();
+        for (Category category : categoryService.getAll()) {
+            List<CategoryNodeDto> path = tree.path(category.getId());
+            int depth = path.size() - 1;
+            for (CategoryNodeDto ancestor : path) {
+                pairs.add(ancestor.getId() + ">" + category.getId() + "@" + (depth - ancestor.getDepth()));
+            }
+        }
+        return pairs;
+    }
+
+    private Set<String> actualPairs() {
+        Set<String> pairs = new HashSet<>();
+        for (CategoryClosure row : categoryClosureRepo.findAll()) {
+            pairs.add(row.getId().getAncestorId() + ">" + row.getId().getDescendantId() + "@" + row.getDepth());
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.CategoryNodeDto;
+import com.example.demo.entities.Category;
+import com.example.demo.repositories.CategoryRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Category tree snapshot: answers match the parent links in the database, committed
+ * changes are visible right after the service call returns, parent cycles are rejected
+ * (or broken when already in the data), and reads cost no SQL.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:categorytreedb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CategoryTreeTest {
+    private static final int ROOTS = 10;
+    private static final int FANOUT = 4;
+    private static final int LEVELS = 4;
+    private static final int LOOKUPS = 10_000;
+
+    @Autowired
+    private CategoryTree categoryTree;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryClosureService categoryClosureService;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Category> categories = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        List<Category> level = new ArrayList<>();
+        for (int i = 0; i < ROOTS; i++) {
+            level.add(new Category("Root " + i, "Top-level category"));
+        }
+        categories.addAll(categoryRepo.saveAll(level));
+        for (int depth = 1; depth < LEVELS; depth++) {
+            List<Category> next = new ArrayList<>();
+            for (Category parent : level) {
+                for (int i = 0; i < FANOUT; i++) {
+                    Category child = new Category(parent.getName() + "/" + i, "Level " + depth);
+                    child.setParent(parent);
+                    next.add(child);
+                }
+            }
+            level = categoryRepo.saveAll(next);
+            categories.addAll(level);
+        }
+        categoryTree.rebuild();
+        categoryClosureService.rebuild();
+    }
+
+    @Test
+    void answersMatchParentLinks() {
+        CategoryTree.Snapshot tree = categoryTree.current();
+        assertEquals(categories.size(), tree.size());
+        assertEquals(ROOTS, tree.roots().size());
+
+        Category leaf = categories.get(categories.size() - 1);
+        List<CategoryNodeDto> path = tree.path(leaf.getId());
+        assertEquals(LEVELS, path.size());
+        Category expected = leaf;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            assertEquals(expected.getId(), path.get(i).getId());
+            assertEquals(i, path.get(i).getDepth());
+            expected = expected.getParent();
+        }
+
+        Long root = path.get(0).getId();
+        int subtreeSize = (int) ((Math.pow(FANOUT, LEVELS) - 1) / (FANOUT - 1));
+        assertEquals(subtreeSize, tree.subtreeIds(root).size());
+        assertTrue(tree.isInSubtree(leaf.getId(), root));
+        assertTrue(tree.isInSubtree(root, root));
+        assertFalse(tree.isInSubtree(root, leaf.getId()));
+        assertEquals(FANOUT, tree.children(root).size());
+        assertTrue(tree.children(leaf.getId()).isEmpty());
+    }
+
+    @Test
+    void committedChangesRebuildTheSnapshot() {
+        Category parent = categoryService.add(new Category("Seasonal", "Moves around"));
+        Category child = new Category("Seasonal/Winter", "Child");
+        child.setParent(parent);
+        child = categoryService.add(child);
+        CategoryTree.Snapshot before = categoryTree.current();
+        assertEquals(List.of(parent.getId(), child.getId()), before.subtreeIds(parent.getId()));
+
+        Long target = categories.get(0).getId();
+        categoryService.moveSubcategories(parent.getId(), target);
+        assertTrue(categoryTree.current().isInSubtree(child.getId(), target));
+        // Snapshots are immutable: a reader holding the old one keeps a consistent view
+        assertTrue(before.isInSubtree(child.getId(), parent.getId()));
+
+        // A category cannot move below its own descendant
+        Category descendant = categories.get(ROOTS);
+        Category rootUpdate = new Category("Root 0", "Top-level category");
+        rootUpdate.setParent(descendant);
+        assertThrows(IllegalArgumentException.class, () -> categoryService.update(target, rootUpdate));
+        assertThrows(IllegalArgumentException.class,
+                () -> categoryService.moveSubcategories(target, descendant.getId()));
+
+        categoryService.delete(child.getId());
+        categoryService.delete(parent.getId());
+        assertFalse(categoryTree.current().contains(child.getId()));
+        assertFalse(categoryTree.current().contains(parent.getId()));
+    }
+
+    @Test
+    void parentCycleInDataIsBrokenAtLowestId() {
+        List<Object[]> rows = List.of(
+                new Object[]{1L, "a", true, 3L},
+                new Object[]{2L, "b", true, 1L},
+                new Object[]{3L, "c", true, 2L},
+                new Object[]{4L, "d", true, null});
+        CategoryTree.Snapshot tree = CategoryTree.build(rows);
+
+        assertEquals(4, tree.size());
+        assertEquals(List.of(1L, 2L, 3L), tree.subtreeIds(1L));
+        assertEquals(List.of(4L, 1L), tree.roots().stream().map(CategoryNodeDto::getId).toList());
+    }
+
+    @Test
+    void readsIssueNoStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Random random = new Random(3);
+        long[] ids = categories.stream().mapToLong(Category::getId).toArray();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            CategoryTree.Snapshot tree = categoryTree.current();
+            long id = ids[random.nextInt(ids.length)];
+            tree.isInSubtree(id, ids[random.nextInt(ROOTS)]);
+            tree.path(id);
+        }
+
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+    }
+}
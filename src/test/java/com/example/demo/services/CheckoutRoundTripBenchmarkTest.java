@@ -0,0 +1,139 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.entities.UserRole;
+import com.example.demo.repositories.CartItemRepo;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout write-path database round trips for 1, 10 and 100 item carts. Round trips
+ * are counted at the JDBC level (every execute / executeBatch call), so batched inserts
+ * count once per batch. With pooled sequence ids and JDBC batching the count must not
+ * grow with the cart size, apart from the occasional sequence fetch when an id pool
+ * runs out. Checkout latency is measured by the JMH {@code CheckoutBenchmark}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:checkoutbenchdb")
+class CheckoutRoundTripBenchmarkTest {
+    private static final int[] CART_SIZES = {1, 10, 100};
+    private static final int RUNS = 5;
+
+    static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private CartItemRepo cartItemRepo;
+
+    @Test
+    void roundTripsDoNotGrowWithCartSize() {
+        Map<Integer, Long> roundTrips = new LinkedHashMap<>();
+        int user = 0;
+
+        for (int size : CART_SIZES) {
+            long minTrips = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                Long cartId = cartWithItems("bench" + (user++) + "@example.com", size);
+
+                ROUND_TRIPS.set(0);
+                Order order = orderService.createOrderFromCart(cartId, "Street", "City", "12345", "IL");
+                minTrips = Math.min(minTrips, ROUND_TRIPS.get());
+
+                assertEquals(size, order.getOrderItems().size());
+            }
+            roundTrips.put(size, minTrips);
+        }
+
+        long smallest = roundTrips.get(CART_SIZES[0]);
+        for (long trips : roundTrips.values()) {
+            assertTrue(trips <= smallest, "round trips grew with cart size: " + roundTrips);
+        }
+    }
+
+    private Long cartWithItems(String email, int size) {
+        userRepo.save(new User(email, "secret", email, "050000000", "Street", UserRole.USER));
+        Cart cart = cartService.createCartForUser(email);
+        for (int i = 0; i < size; i++) {
+            Product product = productRepo.save(new Product("Bench item " + i, "bench", 5.0, null, 1000, "Brand", "B" + i));
+            cartItemRepo.save(new CartItem(cart, product, 1));
+        }
+        return cartRepo.findById(cart.getId()).orElseThrow().getId();
+    }
+
+    @TestConfiguration
+    static class RoundTripCounterConfig {
+        private static final Set<String> EXECUTE_METHODS =
+                Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return proxy(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                if (target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                Class<?> returnType = method.getReturnType();
+                if (result != null && returnType.isInterface()
+                        && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                    return proxy((Class<Object>) returnType, result);
+                }
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.DailyRevenueDto;
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.PaymentMethod;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.entities.User;
+import com.example.demo.entities.UserRole;
+import com.example.demo.exceptions.InvalidOrderStateException;
+import com.example.demo.repositories.CartItemRepo;
+import com.example.demo.repositories.PaymentRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Daily revenue rollup follows orders through checkout, payment and cancellation:
+ * after every change the per-status buckets match a rebuild from the orders table,
+ * and an order that cannot move to PROCESSING is not paid.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dailyrevenuedb")
+class DailyRevenueRollupTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private DailyRevenueService dailyRevenueService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private CartItemRepo cartItemRepo;
+
+    @Autowired
+    private PaymentRepo paymentRepo;
+
+    @Test
+    void paymentMovesOrderToProcessingBucket() {
+        Order paid = checkout("paid@example.com", 3, 20.0);
+        Order cancelled = checkout("cancelled@example.com", 2, 15.0);
+        DailyRevenueDto before = today();
+        assertEquals(2, count(before, StatusOrder.PENDING));
+        assertEquals(90.0, amount(before, StatusOrder.PENDING));
+
+        orderService.processPayment(paid.getId(), PaymentMethod.CREDIT_CARD, "TX-1");
+        DailyRevenueDto afterPayment = today();
+        assertEquals(1, count(afterPayment, StatusOrder.PENDING));
+        assertEquals(30.0, amount(afterPayment, StatusOrder.PENDING));
+        assertEquals(1, count(afterPayment, StatusOrder.PROCESSING));
+        assertEquals(60.0, amount(afterPayment, StatusOrder.PROCESSING));
+        assertEquals(90.0, afterPayment.getGrossAmount());
+
+        // A cancelled order, or one that is already paid, cannot be paid again
+        orderService.updateStatus(cancelled.getId(), StatusOrder.CANCELLED, "Changed my mind");
+        long payments = paymentRepo.count();
+        assertThrows(InvalidOrderStateException.class,
+                () -> orderService.processPayment(cancelled.getId(), PaymentMethod.PAYPAL, "TX-2"));
+        assertThrows(InvalidOrderStateException.class,
+                () -> orderService.processPayment(paid.getId(), PaymentMethod.PAYPAL, "TX-3"));
+        assertEquals(payments, paymentRepo.count());
+        assertEquals(StatusOrder.CANCELLED, orderService.getById(cancelled.getId()).orElseThrow().getStatusOrder());
+
+        DailyRevenueDto maintained = today();
+        assertEquals(0, count(maintained, StatusOrder.PENDING));
+        assertEquals(1, count(maintained, StatusOrder.PROCESSING));
+        assertEquals(1, count(maintained, StatusOrder.CANCELLED));
+
+        // Incremental maintenance ends where a rebuild from the orders table does
+        dailyRevenueService.rebuild();
+        assertEquals(maintained, today());
+    }
+
+    private Order checkout(String email, int units, double price) {
+        userRepo.save(new User(email, "secret", email, "050000000", "Street", UserRole.USER));
+        Cart cart = cartService.createCartForUser(email);
+        Product product = productRepo.save(new Product("Rollup item " + email, "rollup", price, null, 100, "Brand", email));
+        cartItemRepo.save(new CartItem(cart, product, units));
+        return orderService.createOrderFromCart(cart.getId(), "Street", "City", "12345", "IL");
+    }
+
+    private DailyRevenueDto today() {
+        List<DailyRevenueDto> days = dailyRevenueService.getDailyRevenue(LocalDate.now(), LocalDate.now());
+        assertEquals(1, days.size());
+        return days.get(0);
+    }
+
+    private static long count(DailyRevenueDto day, StatusOrder status) {
+        DailyRevenueDto.StatusTotals totals = day.getByStatus().get(status);
+        return totals == null ? 0 : totals.getOrderCount();
+    }
+
+    private static double amount(DailyRevenueDto day, StatusOrder status) {
+        DailyRevenueDto.StatusTotals totals = day.getByStatus().get(status);
+        return totals == null ? 0 : totals.getGrossAmount();
+    }
+}
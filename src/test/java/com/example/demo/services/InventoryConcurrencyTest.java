@@ -0,0 +1,113 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.entities.UserRole;
+import com.example.demo.exceptions.InsufficientInventoryException;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.OrderItemRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flash-sale stress test: many concurrent checkouts race for one hot SKU.
+ * Exactly the available stock must be sold, never more.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:inventorydb;LOCK_TIMEOUT=30000")
+class InventoryConcurrencyTest {
+    private static final int STOCK = 25;
+    private static final int BUYERS = 120;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private OrderItemRepo orderItemRepo;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = productRepo.save(new Product("Flash sale item", "limited", 10.0, null, STOCK, "Brand", "X1"));
+
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            String email = "buyer" + i + "@example.com";
+            userRepo.save(new User("buyer" + i, "secret", email, "050000000", "Street " + i, UserRole.USER));
+            Cart cart = cartService.createCartForUser(email);
+            cartService.addProductToCart(cart.getId(), product.getId(), 1);
+            // Let the cart hold lapse so only the atomic decrement guards the stock
+            reservationService.releaseAll(StockReservationService.cartOwner(cart.getId()));
+            cartIds.add(cart.getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (Long cartId : cartIds) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrderFromCart(cartId, "Street", "City", "12345", "IL");
+                    sold.incrementAndGet();
+                } catch (InsufficientInventoryException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(STOCK, sold.get());
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(0, productRepo.findById(product.getId()).orElseThrow().getQuantity());
+
+        int orderedUnits = orderItemRepo.findByProductId(product.getId()).stream()
+                .mapToInt(item -> item.getQuantity())
+                .sum();
+        assertEquals(STOCK, orderedUnits);
+
+        long activeCarts = cartIds.stream()
+                .filter(id -> cartRepo.findById(id).orElseThrow().isActive())
+                .count();
+        assertEquals(BUYERS - STOCK, activeCarts);
+    }
+}
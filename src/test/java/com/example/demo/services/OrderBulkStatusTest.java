@@ -0,0 +1,73 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.repositories.OrderRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Warehouse manifest: marking orders SHIPPED one call at a time, as the
+ * PUT /orders/{id}/status loop does, and with one bulk transition leaves the same
+ * status and history rows; the bulk path also records the tracking numbers.
+ * The speed of both paths is compared by the JMH {@code OrderBulkStatusBenchmark}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulkstatusdb")
+class OrderBulkStatusTest {
+    private static final int ORDERS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkShippingMatchesLoopedUpdates() {
+        List<Long> looped = processingOrders(ORDERS);
+        List<Long> bulk = processingOrders(ORDERS);
+
+        for (Long id : looped) {
+            orderService.updateStatus(id, StatusOrder.SHIPPED, "manifest");
+        }
+        Map<Long, String> trackingNumbers = new HashMap<>();
+        bulk.forEach(id -> trackingNumbers.put(id, "TRK" + id));
+        List<BulkStatusResultDto> results = orderService.bulkUpdateStatus(bulk, StatusOrder.SHIPPED, "manifest", trackingNumbers);
+        assertTrue(results.stream().allMatch(result -> BulkStatusResultDto.UPDATED.equals(result.getResult())));
+
+        Integer shipped = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE status_order = 'SHIPPED'", Integer.class);
+        assertEquals(2 * ORDERS, shipped);
+        Integer tracked = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE tracking_number IS NOT NULL", Integer.class);
+        assertEquals(ORDERS, tracked);
+        Integer history = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_status_history WHERE status = 'SHIPPED'", Integer.class);
+        assertEquals(2 * ORDERS, history);
+    }
+
+    private List<Long> processingOrders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(null, LocalDate.now(), StatusOrder.PENDING);
+            order.updateStatus(StatusOrder.PROCESSING, "Payment processed");
+            orders.add(order);
+        }
+        return orderRepo.saveAll(orders).stream().map(Order::getId).toList();
+    }
+}
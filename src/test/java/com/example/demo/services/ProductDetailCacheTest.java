@@ -0,0 +1,171 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Review;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Product page cache: concurrent misses on one id run a single load, every mutator that
+ * shows on the page (including a rename of the product's category) drops the entry. The
+ * cost of a hit against a load from the database is measured by the JMH
+ * {@code ProductDetailCacheBenchmark}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:productcachedb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductDetailCacheTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ProductDetailCache cache;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeAll
+    void seed() {
+        user = userRepo.save(new User("cacheuser", "secret", "cache@example.com", "050000000", "Street 1", false));
+        Category category = categoryRepo.save(new Category("Cache", "Cache category"));
+        categoryId = category.getId();
+        Product product = new Product("Cached product", "Description", 25, category, 100, "Brand", "C1");
+        product.addImage("/images/cached.png");
+        product.addSpecification("color", "black");
+        productId = productRepo.save(product).getId();
+    }
+
+    @BeforeEach
+    void clear() {
+        cache.clear();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        double loadsBefore = loads();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<byte[]>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.get(productId).orElseThrow();
+            }));
+        }
+        start.countDown();
+        byte[] first = results.get(0).get();
+        for (Future<byte[]> result : results) {
+            assertArrayEquals(first, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads() - loadsBefore, "concurrent misses on one id must load once");
+    }
+
+    @Test
+    void mutatorsInvalidateTheEntry() {
+        assertEquals(100, page().get("quantity").asInt());
+
+        productService.updateStock(productId, 80);
+        assertEquals(80, page().get("quantity").asInt());
+
+        productService.adjustStock(productId, -5);
+        assertEquals(75, page().get("quantity").asInt());
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.decrementStock(Map.of(productId, 5)));
+        assertEquals(70, page().get("quantity").asInt());
+
+        productService.addProductSpecification(productId, "weight", "1kg");
+        assertEquals(2, page().get("specifications").size());
+
+        productService.deactivateProduct(productId);
+        assertTrue(!page().get("active").asBoolean());
+        productService.activateProduct(productId);
+        assertTrue(page().get("active").asBoolean());
+
+        Review review = new Review(user, productRepo.findById(productId).orElseThrow(), 4, "Good");
+        Long reviewId = reviewService.add(review).getId();
+        reviewService.moderateReview(reviewId, true);
+        assertEquals(1, page().get("reviewCount").asLong());
+        reviewService.delete(reviewId);
+        assertEquals(0, page().get("reviewCount").asLong());
+    }
+
+    @Test
+    void categoryRenameInvalidatesTheEntry() {
+        assertEquals("Cache", page().get("categoryName").asText());
+
+        categoryService.update(categoryId, new Category("Cache renamed", "Cache category"));
+        assertEquals("Cache renamed", page().get("categoryName").asText());
+
+        categoryService.update(categoryId, new Category("Cache", "Cache category"));
+        assertEquals("Cache", page().get("categoryName").asText());
+    }
+
+    private JsonNode page() {
+        try {
+            return objectMapper.readTree(cache.get(productId).orElseThrow());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double loads() {
+        return meterRegistry.get("cache.load").tags("cache", "productDetail", "result", "success")
+                .functionCounter().count();
+    }
+}
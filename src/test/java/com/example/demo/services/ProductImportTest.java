@@ -0,0 +1,204 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.ProductImportDto;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.ProductRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk import of a generated supplier catalog streamed row by row: per-row error and
+ * duplicate reporting, and a re-import that updates in place without leaving stale
+ * entities, cached queries or search results behind. Import throughput is measured by
+ * the JMH {@code ProductImportBenchmark}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:productimportdb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductImportTest {
+    private static final int ROWS = 10_000;
+    private static final int CATEGORIES = 20;
+    private static final int BRANDS = 30;
+    // Within every block of rows: one bad price, one unknown category, one repeated row
+    private static final int BLOCK = 1_000;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIds.add(categoryRepo.save(new Category("Import category " + i, "Category " + i)).getId());
+        }
+    }
+
+    @Test
+    void importsCatalogAndUpdatesInPlace() throws Exception {
+        // Cached before the import; the import must invalidate it
+        Long categoryId = categoryIds.get(3);
+        assertTrue(productRepo.findByCategoryId(categoryId).isEmpty());
+
+        List<ProductImportDto> reports = new ArrayList<>();
+        ProductImportDto result = importService.importProducts(ProductImportService.Format.CSV,
+                stream("name,description,price,quantity,category,brand,model\n", this::csvRow), reports::add);
+
+        int blocks = ROWS / BLOCK;
+        assertEquals(ROWS + blocks, result.getRows());
+        assertEquals(ROWS - 2 * blocks, result.getInserted());
+        assertEquals(0, result.getUpdated());
+        assertEquals(blocks, result.getDuplicates());
+        assertEquals(2 * blocks, result.getFailed());
+        assertTrue(reports.get(reports.size() - 1).isDone());
+        assertTrue(reports.size() >= ROWS / 5_000, "one progress report per committed chunk");
+
+        List<ProductImportDto.RowError> errors = reports.stream().flatMap(report -> report.getErrors().stream()).toList();
+        assertEquals(2 * blocks, errors.size());
+        assertEquals(19, errors.get(0).getLine());
+        assertTrue(errors.get(0).getMessage().contains("price"));
+
+        // The repeated row won, quoted commas survived, and the cached query was invalidated
+        Product repeated = productRepo.findByModel("IMP-100").get(0);
+        assertEquals(999.0, repeated.getPrice());
+        assertEquals("Widget, size 100", repeated.getName());
+        List<Product> inCategory = productRepo.findByCategoryId(categoryId);
+        assertEquals(expectedInCategory(3), inCategory.size());
+        assertEquals(inCategory.size(), searchCount(categoryId));
+
+        // Re-import part of the catalog as NDJSON with new prices: updates only, no stale cache
+        Product cached = productRepo.findById(inCategory.get(0).getId()).orElseThrow();
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, cached.getId()));
+        int changed = 2_000;
+        ProductImportDto update = importService.importProducts(ProductImportService.Format.NDJSON,
+                stream("", i -> i < changed ? ndjsonRow(i) : null), report -> { });
+        long bad = 2L * changed / BLOCK;
+        assertEquals(0, update.getInserted());
+        assertEquals(changed - bad, update.getUpdated());
+        assertEquals(bad, update.getFailed());
+        Product reloaded = productRepo.findById(cached.getId()).orElseThrow();
+        int index = Integer.parseInt(reloaded.getModel().substring("IMP-".length()));
+        if (index < changed) {
+            assertEquals(price(index) + 1, reloaded.getPrice());
+        }
+        assertEquals(inCategory.size(), productRepo.findByCategoryId(categoryId).size());
+        assertEquals(inCategory.size(), searchCount(categoryId));
+    }
+
+    @Test
+    void rejectsFractionalQuantityAndNonFinitePrice() throws Exception {
+        String[] rows = {
+                "Strict 0,10,2.7,STRICT-0\n",
+                "Strict 1,10,1e12,STRICT-1\n",
+                "Strict 2,Infinity,1,STRICT-2\n",
+                "Strict 3,10,3,STRICT-3\n"};
+        List<ProductImportDto> reports = new ArrayList<>();
+        ProductImportDto result = importService.importProducts(ProductImportService.Format.CSV,
+                stream("name,price,quantity,model\n", i -> i < rows.length ? rows[i] : null), reports::add);
+
+        assertEquals(1, result.getInserted());
+        assertEquals(3, result.getFailed());
+        List<ProductImportDto.RowError> errors = reports.stream().flatMap(report -> report.getErrors().stream()).toList();
+        assertTrue(errors.get(0).getMessage().contains("quantity"));
+        assertTrue(errors.get(1).getMessage().contains("quantity"));
+        assertTrue(errors.get(2).getMessage().contains("finite"));
+        assertEquals(3, productRepo.findByModel("STRICT-3").get(0).getQuantity());
+    }
+
+    // Header followed by the rows of the generator (null ends the file), produced while the reader consumes them
+    private static InputStream stream(String header, IntFunction<String> rows) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next = -1;
+            private String pending = header;
+
+            @Override
+            public boolean hasMoreElements() {
+                if (pending == null && next < ROWS) {
+                    next++;
+                    pending = next < ROWS ? rows.apply(next) : null;
+                }
+                return pending != null;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                hasMoreElements();
+                InputStream element = new ByteArrayInputStream(pending.getBytes(StandardCharsets.UTF_8));
+                pending = null;
+                return element;
+            }
+        });
+    }
+
+    private String csvRow(int i) {
+        int position = i % BLOCK;
+        String price = position == 17 ? "n/a" : String.valueOf(price(i));
+        String category = position == 23 ? "Nowhere" : "Import category " + i % CATEGORIES;
+        String row = "\"Widget, size " + i + "\",\"Supplier item \"\"" + i + "\"\"\"," + price + "," + (i % 40) + ","
+                + category + ",Brand " + i % BRANDS + ",IMP-" + i + "\n";
+        if (position == 100) {
+            row += "\"Widget, size " + i + "\",Repeated," + 999.0 + ",1," + category + ",Brand " + i % BRANDS
+                    + ",IMP-" + i + "\n";
+        }
+        return row;
+    }
+
+    private String ndjsonRow(int i) {
+        int position = i % BLOCK;
+        String price = position == 17 ? "\"n/a\"" : String.valueOf(price(i) + 1);
+        String category = position == 23 ? "Nowhere" : "Import category " + i % CATEGORIES;
+        return "{\"name\":\"Widget " + i + "\",\"price\":" + price + ",\"quantity\":" + (i % 40)
+                + ",\"category\":\"" + category + "\",\"brand\":\"Brand " + i % BRANDS + "\",\"model\":\"IMP-" + i + "\"}\n";
+    }
+
+    private static double price(int i) {
+        return 5 + i % 200;
+    }
+
+    private static long expectedInCategory(int category) {
+        long count = 0;
+        for (int i = category; i < ROWS; i += CATEGORIES) {
+            int position = i % BLOCK;
+            if (position != 17 && position != 23) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long searchCount(Long categoryId) {
+        return productSearchIndex.search(null, null, categoryId, null, null, null,
+                PageRequest.of(0, 1, Sort.by("id"))).getTotalElements();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Review;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.OrderRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.ReviewRepo;
+import com.example.demo.repositories.UserRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the entity read paths the controllers used to return with the DTO projections
+ * they return now: SQL statements, JSON payload bytes and bytes allocated per request.
+ * Each path is run and serialized inside one read-only transaction, as with
+ * open-in-view, so lazy associations load the way they would during a real request.
+ * The second-level cache is emptied before each run, so both paths are measured against
+ * the database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:readprojectiondb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadProjectionBenchmarkTest {
+    private static final int PRODUCTS = 50;
+    private static final int ORDERS = 200;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final int CART_ITEMS = 10;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+    private Long cartId;
+
+    @BeforeAll
+    void seed() {
+        User user = userRepo.save(new User("projectionuser", "secret", "projection@example.com", "050000000", "Street 1", false));
+        Category category = categoryRepo.save(new Category("Electronics", "All electronics"));
+        Product[] products = new Product[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("Product " + i, "Description of product " + i, 10 + i, category, 100, "Brand", "M" + i);
+            for (int j = 0; j < 3; j++) {
+                product.addImage("/images/" + i + "-" + j + ".png");
+                product.addSpecification("spec" + j, "value" + j);
+            }
+            products[i] = productRepo.save(product);
+            for (int j = 0; j < 5; j++) {
+                Review review = new Review(user, products[i], 1 + j, "Review " + j);
+                review.setApproved(true);
+                reviewRepo.save(review);
+            }
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(user, LocalDate.now(), StatusOrder.PENDING);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                Product product = products[(i + j) % PRODUCTS];
+                order.getOrderItems().add(new OrderItem(order, product, 1, product.getPrice()));
+            }
+            order.calculateTotalAmount();
+            orderRepo.save(order);
+        }
+        Cart cart = new Cart(user);
+        for (int i = 0; i < CART_ITEMS; i++) {
+            cart.getCartItems().add(new CartItem(cart, products[i], 2));
+        }
+        cartId = cartRepo.save(cart).getId();
+        productId = products[0].getId();
+    }
+
+    @Test
+    void productList() {
+        compare("GET /products", productService::getAll, productService::getSummaries);
+    }
+
+    @Test
+    void productDetail() {
+        compare("GET /products/{id}", () -> productService.getById(productId).orElseThrow(),
+                () -> productService.getDetail(productId).orElseThrow());
+    }
+
+    @Test
+    void orderList() {
+        compare("GET /orders", orderService::getAll, orderService::getSummaries);
+    }
+
+    @Test
+    void cartView() {
+        compare("GET /carts/{id}", () -> cartService.getById(cartId).orElseThrow(),
+                () -> cartService.getCartView(cartId).orElseThrow());
+    }
+
+    private void compare(String endpoint, Supplier<Object> entityPath, Supplier<Object> projectionPath) {
+        for (int i = 0; i < WARMUP; i++) {
+            measure(entityPath);
+            measure(projectionPath);
+        }
+        Measurement entity = best(entityPath);
+        Measurement projection = best(projectionPath);
+
+        assertTrue(projection.statements <= entity.statements, endpoint + " issues more statements");
+        assertTrue(projection.payloadBytes < entity.payloadBytes, endpoint + " payload did not shrink");
+        assertTrue(projection.allocatedBytes < entity.allocatedBytes, endpoint + " allocates more");
+    }
+
+    // Least allocation over several runs filters out JIT and TLAB noise
+    private Measurement best(Supplier<Object> path) {
+        Measurement best = measure(path);
+        for (int i = 1; i < RUNS; i++) {
+            Measurement next = measure(path);
+            if (next.allocatedBytes < best.allocatedBytes) {
+                best = next;
+            }
+        }
+        return best;
+    }
+
+    private Measurement measure(Supplier<Object> path) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        byte[] payload = readOnly.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(path.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement(statistics.getPrepareStatementCount(), payload.length, allocated);
+    }
+
+    private record Measurement(long statements, int payloadBytes, long allocatedBytes) {
+    }
+}
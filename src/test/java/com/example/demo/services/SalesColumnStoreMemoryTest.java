@@ -0,0 +1,84 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.ProductSalesDto;
+import com.example.demo.dto.SalesColumnStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the heap held per order line by the sales column store and checks the
+ * reports against totals computed alongside. Heap usage is sampled around the load
+ * after forcing GC, so it is an approximation; the bound leaves room for that noise.
+ */
+class SalesColumnStoreMemoryTest {
+    private static final int LINES = 1_000_000;
+    private static final int PRODUCTS = 5_000;
+    private static final int DAYS = 365;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    // Four primitive columns take 20 bytes per line
+    private static final double MAX_BYTES_PER_LINE = 32;
+
+    @Test
+    void ordersLinesAreCompactAndReportsMatch() {
+        long[] expectedQuantity = new long[PRODUCTS];
+        long expectedInRange = 0;
+        LocalDate rangeStart = FIRST_DAY.plusDays(100);
+        LocalDate rangeEnd = FIRST_DAY.plusDays(130);
+
+        long before = usedHeap();
+        SalesColumnStore store = new SalesColumnStore();
+        List<SalesColumnStore.Line> batch = new ArrayList<>(1000);
+        for (int i = 0; i < LINES; i++) {
+            int product = (int) ((i * 2654435761L) % PRODUCTS);
+            int quantity = 1 + i % 5;
+            int dayOffset = i * DAYS / LINES;
+            LocalDate day = FIRST_DAY.plusDays(dayOffset);
+            batch.add(new SalesColumnStore.Line(product + 1, quantity, 10.0, (int) day.toEpochDay()));
+            expectedQuantity[product] += quantity;
+            if (!day.isBefore(rangeStart) && !day.isAfter(rangeEnd)) {
+                expectedInRange += quantity;
+            }
+            if (batch.size() == 1000) {
+                store.append(batch);
+                batch = new ArrayList<>(1000);
+            }
+        }
+        store.append(batch);
+        batch = null;
+        long measured = usedHeap() - before;
+
+        SalesColumnStatsDto stats = store.stats();
+        double measuredPerLine = (double) measured / LINES;
+
+        assertEquals(LINES, stats.getLines());
+        assertEquals(PRODUCTS, stats.getProducts());
+        assertTrue(measuredPerLine <= MAX_BYTES_PER_LINE, "store holds " + measuredPerLine + " bytes per line");
+
+        List<ProductSalesDto> top = store.topSelling(10);
+        List<ProductSalesDto> inRange = store.salesInDateRange(rangeStart, rangeEnd);
+
+        long best = 0;
+        for (long quantity : expectedQuantity) {
+            best = Math.max(best, quantity);
+        }
+        assertEquals(10, top.size());
+        assertEquals(best, top.get(0).getQuantity());
+        assertEquals(expectedQuantity[(int) top.get(0).getProductId() - 1], top.get(0).getQuantity());
+        assertEquals(expectedInRange, inRange.stream().mapToLong(ProductSalesDto::getQuantity).sum());
+        assertEquals(expectedInRange * 10.0, inRange.stream().mapToDouble(ProductSalesDto::getRevenue).sum(), 1e-6);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
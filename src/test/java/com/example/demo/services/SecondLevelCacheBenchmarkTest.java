@@ -0,0 +1,123 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.ProductRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Browse workload (category list, category page, product lookups with images and
+ * specifications, brand list) run once with the second-level cache emptied before every
+ * step and once with a warm cache. Compares the SQL statements issued, and checks that a
+ * JDBC stock update is not hidden by a cached product.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:l2cachedb")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheBenchmarkTest {
+    private static final int CATEGORIES = 10;
+    private static final int PRODUCTS = 200;
+    private static final int STEPS = 2_000;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> categoryIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIds.add(categoryRepo.save(new Category("L2 category " + i, "Category " + i)).getId());
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Category category = categoryRepo.getReferenceById(categoryIds.get(i % CATEGORIES));
+            Product product = new Product("L2 product " + i, "Description " + i, 10 + i, category, 1000,
+                    "Brand " + (i % 7), "L2-" + i);
+            product.addImage("/images/l2/" + i + ".png");
+            product.addSpecification("color", "black");
+            product.addSpecification("weight", i + "g");
+            productIds.add(productRepo.save(product).getId());
+        }
+    }
+
+    @Test
+    void warmCacheIssuesFewerStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long start = statistics.getPrepareStatementCount();
+        browse(true);
+        long cold = statistics.getPrepareStatementCount() - start;
+
+        browse(false);
+        start = statistics.getPrepareStatementCount();
+        browse(false);
+        long warm = statistics.getPrepareStatementCount() - start;
+
+        assertTrue(warm * 10 < cold, "a warm cache should remove at least 90% of the statements");
+    }
+
+    @Test
+    void jdbcStockUpdateInvalidatesCachedProduct() {
+        Long productId = productIds.get(0);
+        int before = productRepo.findById(productId).orElseThrow().getQuantity();
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, productId));
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.decrementStock(Map.of(productId, 3)));
+
+        assertEquals(before - 3, productRepo.findById(productId).orElseThrow().getQuantity());
+    }
+
+    // One step: a category page or a product page, with the category list and brands on every page
+    private void browse(boolean evictBeforeEachStep) {
+        Random random = new Random(7);
+        for (int i = 0; i < STEPS; i++) {
+            if (evictBeforeEachStep) {
+                entityManagerFactory.getCache().evictAll();
+            }
+            boolean categoryPage = random.nextInt(4) == 0;
+            Long categoryId = categoryIds.get(random.nextInt(CATEGORIES));
+            Long productId = productIds.get(random.nextInt(PRODUCTS));
+            transactionTemplate.executeWithoutResult(status -> {
+                categoryRepo.findAll();
+                productRepo.findDistinctBrands();
+                if (categoryPage) {
+                    productRepo.findByCategoryId(categoryId).forEach(product -> product.getCategory().getName());
+                } else {
+                    Product product = productRepo.findById(productId).orElseThrow();
+                    product.getCategory().getName();
+                    product.getImages().size();
+                    product.getSpecifications().size();
+                }
+            });
+        }
+    }
+}
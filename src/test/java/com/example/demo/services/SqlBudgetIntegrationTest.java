@@ -0,0 +1,147 @@
+package com.example.demo.services;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.StatusOrder;
+import com.example.demo.entities.User;
+import com.example.demo.exceptions.SqlBudgetExceededException;
+import com.example.demo.monitoring.SqlBudgetFilter;
+import com.example.demo.repositories.CartRepo;
+import com.example.demo.repositories.CategoryRepo;
+import com.example.demo.repositories.OrderRepo;
+import com.example.demo.repositories.ProductRepo;
+import com.example.demo.repositories.UserRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Runs the budgeted read endpoints through the SQL instrumentation filter and fails when
+ * one of them issues more statements than its store.sql-metrics budget. Security is left
+ * out of the MockMvc chain; it issues no SQL for these requests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sqlbudgetdb",
+        "store.sql-metrics.headers=true",
+        "store.sql-metrics.call-sites=true",
+        "store.sql-metrics.fail-on-budget=true",
+        "store.sql-metrics.budgets.GET[/carts/user/{email}]=3"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlBudgetIntegrationTest {
+    private static final int PRODUCTS = 20;
+    private static final int ORDERS = 30;
+    private static final int CART_ITEMS = 10;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SqlBudgetFilter sqlBudgetFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private OrderRepo orderRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    private MockMvc mockMvc;
+    private Long userId;
+    private Long productId;
+    private Long cartId;
+
+    @BeforeAll
+    void seed() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(sqlBudgetFilter).build();
+
+        User user = userRepo.save(new User("budgetuser", "secret", "budget@example.com", "050000000", "Street 1", false));
+        Category category = categoryRepo.save(new Category("Budget", "Budget category"));
+        Product[] products = new Product[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product("Product " + i, "Description " + i, 10 + i, category, 100, "Brand", "B" + i);
+            product.addImage("/images/" + i + ".png");
+            product.addSpecification("color", "black");
+            products[i] = productRepo.save(product);
+        }
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(user, LocalDate.now(), StatusOrder.PENDING);
+            Product product = products[i % PRODUCTS];
+            order.getOrderItems().add(new OrderItem(order, product, 1, product.getPrice()));
+            order.calculateTotalAmount();
+            orderRepo.save(order);
+        }
+        Cart cart = new Cart(user);
+        for (int i = 0; i < CART_ITEMS; i++) {
+            cart.getCartItems().add(new CartItem(cart, products[i], 1));
+        }
+        cartId = cartRepo.save(cart).getId();
+        userId = user.getId();
+        productId = products[0].getId();
+    }
+
+    @Test
+    void readEndpointsStayWithinBudget() throws Exception {
+        assertWithinBudget("/products");
+        assertWithinBudget("/products/paginated");
+        assertWithinBudget("/products/" + productId);
+        assertWithinBudget("/orders");
+        assertWithinBudget("/orders/paginated");
+        assertWithinBudget("/carts/" + cartId);
+        assertWithinBudget("/carts/user/id/" + userId + "/active");
+
+        assertNotNull(meterRegistry.find("store.sql.statements").tags("method", "GET", "uri", "/products/{id}").summary());
+    }
+
+    @Test
+    void entityGraphEndpointExceedsBudget() {
+        SqlBudgetExceededException e = assertThrows(SqlBudgetExceededException.class,
+                () -> mockMvc.perform(get("/carts/user/budget@example.com")));
+
+        assertTrue(e.getMessage().startsWith("GET /carts/user/{email} ran "), e.getMessage());
+        // The per-product lazy loads show up as one statement repeated once per cart line
+        assertTrue(e.getMessage().contains(CART_ITEMS + "x "), e.getMessage());
+        assertTrue(e.getMessage().contains("at (JSON serialization)"), "call sites missing: " + e.getMessage());
+        assertNotNull(meterRegistry.find("store.sql.budget.exceeded").tag("uri", "/carts/user/{email}").counter());
+    }
+
+    private void assertWithinBudget(String path) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(path)).andReturn().getResponse();
+        assertEquals(200, response.getStatus(), path);
+        String statements = response.getHeader(SqlBudgetFilter.STATEMENTS_HEADER);
+        String budget = response.getHeader(SqlBudgetFilter.BUDGET_HEADER);
+
+        assertNotNull(budget, path + " has no budget");
+        assertTrue(Integer.parseInt(statements) <= Integer.parseInt(budget), path);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timer wheel behind stock hold expiry, driven by a fake clock: entries expire on the
+ * tick of their deadline (also past one revolution of the wheel), cancelled entries do
+ * not, and an entry scheduled while the driver is advancing is never left in a bucket
+ * that has already been scanned.
+ */
+class TimerWheelTest {
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+    private static final int SCHEDULERS = 4;
+    private static final int ENTRIES_PER_SCHEDULER = 200_000;
+
+    @Test
+    void expiresOnTheDeadlineTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, WHEEL_SIZE, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 30);
+        wheel.schedule("late", 30 + WHEEL_SIZE * TICK);
+
+        wheel.advance(20, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+
+        // Same bucket one revolution later
+        wheel.advance(30 + (WHEEL_SIZE - 1) * TICK, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+        wheel.advance(30 + WHEEL_SIZE * TICK, expired::add);
+        assertEquals(List.of("a", "b", "late"), expired);
+    }
+
+    @Test
+    void cancelledEntriesDoNotExpire() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, WHEEL_SIZE, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("kept", 20);
+        wheel.schedule("cancelled", 20).cancel();
+
+        wheel.advance(20, expired::add);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    void pastDeadlineExpiresOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(TICK, WHEEL_SIZE, 0);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(50, expired::add);
+
+        wheel.schedule("overdue", 10);
+        wheel.advance(50, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advance(60, expired::add);
+        assertEquals(List.of("overdue"), expired);
+    }
+
+    @Test
+    void entriesScheduledDuringAdvanceAreNotSkipped() throws Exception {
+        TimerWheel<Long> wheel = new TimerWheel<>(TICK, WHEEL_SIZE, 0);
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        AtomicLong clock = new AtomicLong();
+        AtomicLong ids = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(SCHEDULERS);
+        for (int i = 0; i < SCHEDULERS; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < ENTRIES_PER_SCHEDULER; j++) {
+                    long id = ids.incrementAndGet();
+                    pending.add(id);
+                    wheel.schedule(id, clock.get());
+                }
+                done.countDown();
+            }).start();
+        }
+
+        while (done.getCount() > 0) {
+            wheel.advance(clock.addAndGet(TICK), pending::remove);
+        }
+
+        // Everything is due by the next tick; a skipped entry would wait a full revolution
+        wheel.advance(clock.addAndGet(TICK), pending::remove);
+        assertTrue(pending.isEmpty(), pending.size() + " entries outlived their deadline");
+    }
+}